@@ -51,9 +51,24 @@ public abstract class AbstractDataSource implements DataSource
     private String _strName;
     private String _strTargetIndexName;
     private int _nBatchSize = DataSource.BATCH_SIZE;
+    private int _nBulkMaxBytes = DataSource.BULK_MAX_BYTES;
+    private int _nBulkMaxInFlight = DataSource.BULK_MAX_IN_FLIGHT;
+    private int _nPipelineQueueDepth = DataSource.PIPELINE_QUEUE_DEPTH;
+    private int _nIndexingPartitions = DataSource.INDEXING_PARTITIONS;
     private String _strMappings;
     private boolean _bLocalizable;
     private boolean _bFullIndexingDaemon;
+    private boolean _bIndexAliasSwap = DataSource.INDEX_ALIAS_SWAP;
+    private boolean _bExternalVersioning = DataSource.EXTERNAL_VERSIONING;
+    private int _nIndexGenerationsKept = DataSource.INDEX_GENERATIONS_KEPT;
+    private int _nIndexingWeight = DataSource.INDEXING_WEIGHT;
+    private int _nIncrementalMaxActions = DataSource.INCREMENTAL_MAX_ACTIONS;
+    private int _nCreatePriority = DataSource.CREATE_PRIORITY;
+    private int _nModifyPriority = DataSource.MODIFY_PRIORITY;
+    private int _nDeletePriority = DataSource.DELETE_PRIORITY;
+    private int _nLowPriorityWeight = DataSource.LOW_PRIORITY_WEIGHT;
+    private int _nNormalPriorityWeight = DataSource.NORMAL_PRIORITY_WEIGHT;
+    private int _nHighPriorityWeight = DataSource.HIGH_PRIORITY_WEIGHT;
     private IndexingStatus _indexingStatus;
     protected Collection<IDataSourceExternalAttributesProvider> _colExternalAttributesProvider;
 
@@ -145,6 +160,94 @@ public abstract class AbstractDataSource implements DataSource
         _nBatchSize = nBatchSize;
     }
 
+    /**
+     * Returns the BulkMaxBytes
+     * 
+     * @return The BulkMaxBytes
+     */
+    @Override
+    public int getBulkMaxBytes( )
+    {
+        return _nBulkMaxBytes;
+    }
+
+    /**
+     * Sets the BulkMaxBytes
+     * 
+     * @param nBulkMaxBytes
+     *            The BulkMaxBytes
+     */
+    public void setBulkMaxBytes( int nBulkMaxBytes )
+    {
+        _nBulkMaxBytes = nBulkMaxBytes;
+    }
+
+    /**
+     * Returns the BulkMaxInFlight
+     * 
+     * @return The BulkMaxInFlight
+     */
+    @Override
+    public int getBulkMaxInFlight( )
+    {
+        return _nBulkMaxInFlight;
+    }
+
+    /**
+     * Sets the BulkMaxInFlight
+     * 
+     * @param nBulkMaxInFlight
+     *            The BulkMaxInFlight
+     */
+    public void setBulkMaxInFlight( int nBulkMaxInFlight )
+    {
+        _nBulkMaxInFlight = nBulkMaxInFlight;
+    }
+
+    /**
+     * Returns the PipelineQueueDepth
+     * 
+     * @return The PipelineQueueDepth
+     */
+    @Override
+    public int getPipelineQueueDepth( )
+    {
+        return _nPipelineQueueDepth;
+    }
+
+    /**
+     * Sets the PipelineQueueDepth
+     * 
+     * @param nPipelineQueueDepth
+     *            The PipelineQueueDepth
+     */
+    public void setPipelineQueueDepth( int nPipelineQueueDepth )
+    {
+        _nPipelineQueueDepth = nPipelineQueueDepth;
+    }
+
+    /**
+     * Returns the IndexingPartitions
+     * 
+     * @return The IndexingPartitions
+     */
+    @Override
+    public int getIndexingPartitions( )
+    {
+        return _nIndexingPartitions;
+    }
+
+    /**
+     * Sets the IndexingPartitions
+     * 
+     * @param nIndexingPartitions
+     *            The IndexingPartitions
+     */
+    public void setIndexingPartitions( int nIndexingPartitions )
+    {
+        _nIndexingPartitions = nIndexingPartitions;
+    }
+
     /**
      * Returns the Localizable
      * 
@@ -211,6 +314,218 @@ public abstract class AbstractDataSource implements DataSource
         _bFullIndexingDaemon = bFullIndexingDaemon;
     }
 
+    /**
+     * Returns the IndexAliasSwap
+     * 
+     * @return The IndexAliasSwap
+     */
+    @Override
+    public boolean usesIndexAliasSwap( )
+    {
+        return _bIndexAliasSwap;
+    }
+
+    /**
+     * Sets the IndexAliasSwap
+     * 
+     * @param bIndexAliasSwap
+     *            The IndexAliasSwap
+     */
+    public void setIndexAliasSwap( boolean bIndexAliasSwap )
+    {
+        _bIndexAliasSwap = bIndexAliasSwap;
+    }
+
+    /**
+     * Returns the ExternalVersioning
+     * 
+     * @return The ExternalVersioning
+     */
+    @Override
+    public boolean usesExternalVersioning( )
+    {
+        return _bExternalVersioning;
+    }
+
+    /**
+     * Sets the ExternalVersioning
+     * 
+     * @param bExternalVersioning
+     *            The ExternalVersioning
+     */
+    public void setExternalVersioning( boolean bExternalVersioning )
+    {
+        _bExternalVersioning = bExternalVersioning;
+    }
+
+    /**
+     * Returns the IndexGenerationsKept
+     * 
+     * @return The IndexGenerationsKept
+     */
+    @Override
+    public int getIndexGenerationsKept( )
+    {
+        return _nIndexGenerationsKept;
+    }
+
+    /**
+     * Sets the IndexGenerationsKept
+     * 
+     * @param nIndexGenerationsKept
+     *            The IndexGenerationsKept
+     */
+    public void setIndexGenerationsKept( int nIndexGenerationsKept )
+    {
+        _nIndexGenerationsKept = nIndexGenerationsKept;
+    }
+
+    /**
+     * Returns the IndexingWeight
+     * 
+     * @return The IndexingWeight
+     */
+    @Override
+    public int getIndexingWeight( )
+    {
+        return _nIndexingWeight;
+    }
+
+    /**
+     * Sets the IndexingWeight
+     * 
+     * @param nIndexingWeight
+     *            The IndexingWeight
+     */
+    public void setIndexingWeight( int nIndexingWeight )
+    {
+        _nIndexingWeight = nIndexingWeight;
+    }
+
+    /**
+     * Returns the IncrementalMaxActions
+     * 
+     * @return The IncrementalMaxActions
+     */
+    @Override
+    public int getIncrementalMaxActions( )
+    {
+        return _nIncrementalMaxActions;
+    }
+
+    /**
+     * Sets the IncrementalMaxActions
+     * 
+     * @param nIncrementalMaxActions
+     *            The IncrementalMaxActions
+     */
+    public void setIncrementalMaxActions( int nIncrementalMaxActions )
+    {
+        _nIncrementalMaxActions = nIncrementalMaxActions;
+    }
+
+    /**
+     * Sets the CreatePriority
+     * 
+     * @param nCreatePriority
+     *            The CreatePriority
+     */
+    public void setCreatePriority( int nCreatePriority )
+    {
+        _nCreatePriority = nCreatePriority;
+    }
+
+    /**
+     * Sets the ModifyPriority
+     * 
+     * @param nModifyPriority
+     *            The ModifyPriority
+     */
+    public void setModifyPriority( int nModifyPriority )
+    {
+        _nModifyPriority = nModifyPriority;
+    }
+
+    /**
+     * Sets the DeletePriority
+     * 
+     * @param nDeletePriority
+     *            The DeletePriority
+     */
+    public void setDeletePriority( int nDeletePriority )
+    {
+        _nDeletePriority = nDeletePriority;
+    }
+
+    /**
+     * Sets the LowPriorityWeight
+     * 
+     * @param nLowPriorityWeight
+     *            The LowPriorityWeight
+     */
+    public void setLowPriorityWeight( int nLowPriorityWeight )
+    {
+        _nLowPriorityWeight = nLowPriorityWeight;
+    }
+
+    /**
+     * Sets the NormalPriorityWeight
+     * 
+     * @param nNormalPriorityWeight
+     *            The NormalPriorityWeight
+     */
+    public void setNormalPriorityWeight( int nNormalPriorityWeight )
+    {
+        _nNormalPriorityWeight = nNormalPriorityWeight;
+    }
+
+    /**
+     * Sets the HighPriorityWeight
+     * 
+     * @param nHighPriorityWeight
+     *            The HighPriorityWeight
+     */
+    public void setHighPriorityWeight( int nHighPriorityWeight )
+    {
+        _nHighPriorityWeight = nHighPriorityWeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getTaskPriority( int nIdTask )
+    {
+        switch( nIdTask )
+        {
+            case IndexerAction.TASK_CREATE:
+                return _nCreatePriority;
+            case IndexerAction.TASK_MODIFY:
+                return _nModifyPriority;
+            case IndexerAction.TASK_DELETE:
+                return _nDeletePriority;
+            default:
+                return IndexerAction.PRIORITY_NORMAL;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPriorityWeight( int nPriority )
+    {
+        switch( nPriority )
+        {
+            case IndexerAction.PRIORITY_LOW:
+                return _nLowPriorityWeight;
+            case IndexerAction.PRIORITY_HIGH:
+                return _nHighPriorityWeight;
+            default:
+                return _nNormalPriorityWeight;
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
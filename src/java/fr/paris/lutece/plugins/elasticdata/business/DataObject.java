@@ -40,6 +40,11 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  */
 public interface DataObject
 {
+    /**
+     * Version of a data without version
+     */
+    long NO_VERSION = -1L;
+
     /**
      * The timestamp of the data
      * 
@@ -85,4 +90,25 @@ public interface DataObject
      */
     String getDocumentTypeName( );
 
+    /**
+     * The version of the data, used as external version of the document when the data source enables the external versioning. The version must not
+     * decrease with the changes of the data : by default the numeric timestamp. An unset timestamp (0) gives no version, the document is then written
+     * without version check.
+     * 
+     * @return The version, or NO_VERSION if the data has no version
+     */
+    @JsonIgnore
+    default long getVersion( )
+    {
+        try
+        {
+            long lVersion = ( getTimestamp( ) != null ) ? Long.parseLong( getTimestamp( ) ) : NO_VERSION;
+            return ( lVersion > 0 ) ? lVersion : NO_VERSION;
+        }
+        catch( NumberFormatException e )
+        {
+            return NO_VERSION;
+        }
+    }
+
 }
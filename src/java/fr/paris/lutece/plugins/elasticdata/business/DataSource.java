@@ -47,6 +47,36 @@ public interface DataSource
 {
     public static final String PROPERTY_BULK_BATCH_SIZE = "elasticdata.bulk_batch_size";
     public static final int BATCH_SIZE = AppPropertiesService.getPropertyInt( PROPERTY_BULK_BATCH_SIZE, 10000 );
+    public static final String PROPERTY_BULK_MAX_BYTES = "elasticdata.bulk_max_bytes";
+    public static final int BULK_MAX_BYTES = AppPropertiesService.getPropertyInt( PROPERTY_BULK_MAX_BYTES, 5242880 );
+    public static final String PROPERTY_BULK_MAX_IN_FLIGHT = "elasticdata.bulk_max_in_flight";
+    public static final int BULK_MAX_IN_FLIGHT = AppPropertiesService.getPropertyInt( PROPERTY_BULK_MAX_IN_FLIGHT, 1 );
+    public static final String PROPERTY_INDEX_ALIAS_SWAP = "elasticdata.index_alias_swap";
+    public static final boolean INDEX_ALIAS_SWAP = AppPropertiesService.getPropertyBoolean( PROPERTY_INDEX_ALIAS_SWAP, false );
+    public static final String PROPERTY_EXTERNAL_VERSIONING = "elasticdata.external_versioning";
+    public static final boolean EXTERNAL_VERSIONING = AppPropertiesService.getPropertyBoolean( PROPERTY_EXTERNAL_VERSIONING, false );
+    public static final String PROPERTY_INDEX_GENERATIONS_KEPT = "elasticdata.index_generations_kept";
+    public static final int INDEX_GENERATIONS_KEPT = AppPropertiesService.getPropertyInt( PROPERTY_INDEX_GENERATIONS_KEPT, 1 );
+    public static final String PROPERTY_INDEXING_WEIGHT = "elasticdata.indexing_weight";
+    public static final int INDEXING_WEIGHT = AppPropertiesService.getPropertyInt( PROPERTY_INDEXING_WEIGHT, 1 );
+    public static final String PROPERTY_INDEXING_PARTITIONS = "elasticdata.indexing_partitions";
+    public static final int INDEXING_PARTITIONS = AppPropertiesService.getPropertyInt( PROPERTY_INDEXING_PARTITIONS, 1 );
+    public static final String PROPERTY_PIPELINE_QUEUE_DEPTH = "elasticdata.pipeline_queue_depth";
+    public static final int PIPELINE_QUEUE_DEPTH = AppPropertiesService.getPropertyInt( PROPERTY_PIPELINE_QUEUE_DEPTH, 2 );
+    public static final String PROPERTY_INCREMENTAL_MAX_ACTIONS = "elasticdata.incremental_max_actions";
+    public static final int INCREMENTAL_MAX_ACTIONS = AppPropertiesService.getPropertyInt( PROPERTY_INCREMENTAL_MAX_ACTIONS, 100000 );
+    public static final String PROPERTY_CREATE_PRIORITY = "elasticdata.create_priority";
+    public static final int CREATE_PRIORITY = AppPropertiesService.getPropertyInt( PROPERTY_CREATE_PRIORITY, IndexerAction.PRIORITY_NORMAL );
+    public static final String PROPERTY_MODIFY_PRIORITY = "elasticdata.modify_priority";
+    public static final int MODIFY_PRIORITY = AppPropertiesService.getPropertyInt( PROPERTY_MODIFY_PRIORITY, IndexerAction.PRIORITY_NORMAL );
+    public static final String PROPERTY_DELETE_PRIORITY = "elasticdata.delete_priority";
+    public static final int DELETE_PRIORITY = AppPropertiesService.getPropertyInt( PROPERTY_DELETE_PRIORITY, IndexerAction.PRIORITY_HIGH );
+    public static final String PROPERTY_LOW_PRIORITY_WEIGHT = "elasticdata.low_priority_weight";
+    public static final int LOW_PRIORITY_WEIGHT = AppPropertiesService.getPropertyInt( PROPERTY_LOW_PRIORITY_WEIGHT, 1 );
+    public static final String PROPERTY_NORMAL_PRIORITY_WEIGHT = "elasticdata.normal_priority_weight";
+    public static final int NORMAL_PRIORITY_WEIGHT = AppPropertiesService.getPropertyInt( PROPERTY_NORMAL_PRIORITY_WEIGHT, 4 );
+    public static final String PROPERTY_HIGH_PRIORITY_WEIGHT = "elasticdata.high_priority_weight";
+    public static final int HIGH_PRIORITY_WEIGHT = AppPropertiesService.getPropertyInt( PROPERTY_HIGH_PRIORITY_WEIGHT, 16 );
 
     /**
      * The Data Source Id
@@ -110,6 +140,47 @@ public interface DataSource
         return BATCH_SIZE;
     }
 
+    /**
+     * Returns the byte budget of a bulk request
+     *
+     * @return The maximum size of a bulk request in bytes
+     */
+    default int getBulkMaxBytes( )
+    {
+        return BULK_MAX_BYTES;
+    }
+
+    /**
+     * Returns the maximum number of bulk requests in flight
+     *
+     * @return The maximum number of bulk requests in flight
+     */
+    default int getBulkMaxInFlight( )
+    {
+        return BULK_MAX_IN_FLIGHT;
+    }
+
+    /**
+     * Returns the number of batches that can wait between two stages of the full indexing pipeline
+     *
+     * @return The queue depth
+     */
+    default int getPipelineQueueDepth( )
+    {
+        return PIPELINE_QUEUE_DEPTH;
+    }
+
+    /**
+     * Returns the number of partitions of the ids list indexed concurrently by a full indexing, each partition being fetched, enriched and sent by its own
+     * pipeline. The partitioned mode loads the objects through getIdDataObjects and getDataObjects, and keeps no checkpoint : its runs can't be resumed.
+     *
+     * @return The number of partitions
+     */
+    default int getIndexingPartitions( )
+    {
+        return INDEXING_PARTITIONS;
+    }
+
     /**
      * Get specific mappings for the Data Source
      * 
@@ -131,6 +202,103 @@ public interface DataSource
      */
     boolean usesFullIndexingDaemon( );
 
+    /**
+     * Uses versioned indices behind an alias : a full indexing with reset fills a new index generation and moves the alias once done
+     * 
+     * @return true if the target index name is an alias swapped at each full indexing
+     */
+    default boolean usesIndexAliasSwap( )
+    {
+        return INDEX_ALIAS_SWAP;
+    }
+
+    /**
+     * Uses the version of the data objects as external version of the documents : Elasticsearch rejects the writes of a data older than the indexed one, so
+     * that the full and incremental indexings of several instances can overlap. The modifications are then indexed as whole documents, since a partial
+     * update can't be externally versioned.
+     * 
+     * @return true if the documents are externally versioned
+     */
+    default boolean usesExternalVersioning( )
+    {
+        return EXTERNAL_VERSIONING;
+    }
+
+    /**
+     * Returns the number of previous index generations kept after an alias swap
+     * 
+     * @return the number of previous generations kept
+     */
+    default int getIndexGenerationsKept( )
+    {
+        return INDEX_GENERATIONS_KEPT;
+    }
+
+    /**
+     * Returns the weight of the data source when several data sources are indexed concurrently : the number of slots of the global concurrency limit it
+     * takes while it is indexed
+     * 
+     * @return the indexing weight
+     */
+    default int getIndexingWeight( )
+    {
+        return INDEXING_WEIGHT;
+    }
+
+    /**
+     * Returns the maximum number of indexer actions processed by an incremental indexing run. The queue is drained by pages of the batch size up to this
+     * limit, the remaining actions are left to the next run.
+     * 
+     * @return the maximum number of actions per run
+     */
+    default int getIncrementalMaxActions( )
+    {
+        return INCREMENTAL_MAX_ACTIONS;
+    }
+
+    /**
+     * Returns the priority of the indexer actions of a task, when no priority is given by the caller
+     * 
+     * @param nIdTask
+     *            the task id
+     * @return the priority, one of the IndexerAction priorities
+     */
+    default int getTaskPriority( int nIdTask )
+    {
+        switch( nIdTask )
+        {
+            case IndexerAction.TASK_CREATE:
+                return CREATE_PRIORITY;
+            case IndexerAction.TASK_MODIFY:
+                return MODIFY_PRIORITY;
+            case IndexerAction.TASK_DELETE:
+                return DELETE_PRIORITY;
+            default:
+                return IndexerAction.PRIORITY_NORMAL;
+        }
+    }
+
+    /**
+     * Returns the weight of a priority lane of the incremental queue : each page of actions claimed is shared between the lanes that are not drained in
+     * proportion of their weights, the higher priorities first
+     * 
+     * @param nPriority
+     *            the priority, one of the IndexerAction priorities
+     * @return the weight of the lane
+     */
+    default int getPriorityWeight( int nPriority )
+    {
+        switch( nPriority )
+        {
+            case IndexerAction.PRIORITY_LOW:
+                return LOW_PRIORITY_WEIGHT;
+            case IndexerAction.PRIORITY_HIGH:
+                return HIGH_PRIORITY_WEIGHT;
+            default:
+                return NORMAL_PRIORITY_WEIGHT;
+        }
+    }
+
     /**
      * Get the external providers of attributes for DataSources
      * 
@@ -36,6 +36,8 @@ package fr.paris.lutece.plugins.elasticdata.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.util.ReferenceList;
+
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,6 +56,39 @@ public interface IIndexerActionDAO
      */
     void insert( IndexerAction indexerAction, Plugin plugin );
 
+    /**
+     * Insert new records in the table with a JDBC batch, executed by chunks of fixed size. The ids of the records are not read back.
+     * 
+     * @param listIndexerActions
+     *            the IndexerAction objects to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void insertBatch( List<IndexerAction> listIndexerActions, Plugin plugin );
+
+    /**
+     * Insert a record in the table, or collapse its task with the task already pending for the resource in a single statement : a deletion replaces the
+     * pending task, which is kept otherwise. The lease of a collapsed record is cleared, so that a run in progress doesn't remove it when acknowledging the
+     * previous task.
+     * 
+     * @param indexerAction
+     *            instance of the IndexerAction object to insert
+     * @param plugin
+     *            the Plugin
+     */
+    void upsert( IndexerAction indexerAction, Plugin plugin );
+
+    /**
+     * Upsert records in the table with a JDBC batch
+     * 
+     * @param listIndexerActions
+     *            the IndexerAction objects to upsert
+     * @param plugin
+     *            the Plugin
+     * @see #upsert(IndexerAction, Plugin)
+     */
+    void upsertBatch( List<IndexerAction> listIndexerActions, Plugin plugin );
+
     /**
      * Update the record in the table
      * 
@@ -64,6 +99,16 @@ public interface IIndexerActionDAO
      */
     void store( IndexerAction indexerAction, Plugin plugin );
 
+    /**
+     * Update the task of records with a JDBC batch, executed by chunks of fixed size
+     * 
+     * @param listIndexerActions
+     *            the IndexerAction objects, with their id and their new task
+     * @param plugin
+     *            the Plugin
+     */
+    void updateTaskBatch( List<IndexerAction> listIndexerActions, Plugin plugin );
+
     /**
      * Delete a record from the table
      * 
@@ -86,6 +131,28 @@ public interface IIndexerActionDAO
      */
     void deleteByIdResourceList( List<String> listIdResource, String strIdDataSource, Plugin plugin );
 
+    /**
+     * Delete the records from the table by identifiers, with IN lists of fixed sizes sent in a JDBC batch
+     * 
+     * @param listIdAction
+     *            The list of indexerAction identifiers
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteByActionIds( List<Integer> listIdAction, Plugin plugin );
+
+    /**
+     * Delete the records from the table by identifiers, if they are still leased by an owner
+     * 
+     * @param listIdAction
+     *            The list of indexerAction identifiers
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param plugin
+     *            the Plugin
+     */
+    void deleteLeasedByIdList( List<Integer> listIdAction, String strLeaseOwner, Plugin plugin );
+
     ///////////////////////////////////////////////////////////////////////////
     // Finders
 
@@ -146,6 +213,149 @@ public interface IIndexerActionDAO
      */
     List<IndexerAction> selectIndexerActionsList( String strIdDataSource, Plugin plugin );
 
+    /**
+     * Load a page of the indexerAction objects of a data source, in the order of their ids
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the indexerAction objects of the page
+     */
+    List<IndexerAction> selectIndexerActionsPage( String strIdDataSource, int nIdActionAfter, int nLimit, Plugin plugin );
+
+    /**
+     * Load a page of the indexerAction objects of a data source and a task, in the order of their ids
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nIdTask
+     *            the task id
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the indexerAction objects of the page
+     */
+    List<IndexerAction> selectIndexerActionsPage( String strIdDataSource, int nIdTask, int nIdActionAfter, int nLimit, Plugin plugin );
+
+    /**
+     * Load a keyset page of the indexerAction objects, optionally filtered by data source and task
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source, or null for all the data sources
+     * @param nIdTask
+     *            the task id, or 0 for all the tasks
+     * @param nIdAction
+     *            the keyset of the page : the actions after this id, or before it if the page is read backward
+     * @param bBackward
+     *            true to read the page before the keyset
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the indexerAction objects of the page, in the order of their ids
+     */
+    List<IndexerAction> selectFilteredIndexerActionsPage( String strIdDataSource, int nIdTask, int nIdAction, boolean bBackward, int nLimit,
+            Plugin plugin );
+
+    /**
+     * Count the indexerAction objects by data source and task
+     * 
+     * @param plugin
+     *            the Plugin
+     * @return The counts of the indexerAction objects
+     */
+    List<IndexerActionCount> selectIndexerActionsCounts( Plugin plugin );
+
+    /**
+     * Load and lock a page of the indexerAction objects of a priority lane of a data source that are not leased, in the order of their ids. The rows
+     * locked by another transaction are skipped (SELECT ... FOR UPDATE SKIP LOCKED).
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nPriority
+     *            the priority lane of the actions
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param now
+     *            the current time, the leases expired before are ignored
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the indexerAction objects of the page
+     */
+    List<IndexerAction> selectClaimableIndexerActionsPage( String strIdDataSource, int nPriority, int nIdActionAfter, int nLimit, Timestamp now,
+            Plugin plugin );
+
+    /**
+     * Lease a list of indexerAction objects
+     * 
+     * @param listIdAction
+     *            The list of indexerAction identifiers
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param leaseExpiry
+     *            the expiry of the lease
+     * @param plugin
+     *            the Plugin
+     */
+    void lease( List<Integer> listIdAction, String strLeaseOwner, Timestamp leaseExpiry, Plugin plugin );
+
+    /**
+     * Lease a page of the indexerAction objects of a priority lane of a data source that are not leased, in the order of their ids, with a conditional
+     * update of the selected page. This is the claim for the databases that don't support SKIP LOCKED : an action of the page leased by another node in
+     * the meantime is not leased.
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nPriority
+     *            the priority lane of the actions
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param leaseExpiry
+     *            the expiry of the lease
+     * @param now
+     *            the current time, the leases expired before are ignored
+     * @param plugin
+     *            the Plugin
+     * @return the number of actions selected for the page, including the ones leased by another node in the meantime
+     */
+    int leaseClaimablePage( String strIdDataSource, int nPriority, int nIdActionAfter, int nLimit, String strLeaseOwner, Timestamp leaseExpiry,
+            Timestamp now, Plugin plugin );
+
+    /**
+     * Load the indexerAction objects of a lease, in the order of their ids
+     * 
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param plugin
+     *            the Plugin
+     * @return The list which contains the data of the leased indexerAction objects
+     */
+    List<IndexerAction> selectLeasedIndexerActions( String strLeaseOwner, Plugin plugin );
+
+    /**
+     * Release the indexerAction objects of a lease
+     * 
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param plugin
+     *            the Plugin
+     */
+    void release( String strLeaseOwner, Plugin plugin );
+
     /**
      * Load the id of all the indexerAction objects and returns them as a list
      * 
@@ -46,10 +46,14 @@ public class IndexerAction implements Serializable
     public static final int TASK_CREATE = 1;
     public static final int TASK_MODIFY = 2;
     public static final int TASK_DELETE = 3;
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
     private int _nId;
     private String _strIdResource;
     private int _nIdTask;
     private String _strIdDataSource;
+    private int _nPriority = PRIORITY_NORMAL;
 
     /**
      * Returns the Id
@@ -134,4 +138,25 @@ public class IndexerAction implements Serializable
     {
         _strIdDataSource = strIdDataSource;
     }
+
+    /**
+     * Returns the Priority
+     * 
+     * @return The Priority
+     */
+    public int getPriority( )
+    {
+        return _nPriority;
+    }
+
+    /**
+     * Sets the Priority
+     * 
+     * @param nPriority
+     *            The Priority
+     */
+    public void setPriority( int nPriority )
+    {
+        _nPriority = nPriority;
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import java.io.Serializable;
+
+/**
+ * This is the business class for the object IndexerActionCount : the number of pending indexer actions of a data source and a task
+ */
+public class IndexerActionCount implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // Variables declarations
+    private String _strIdDataSource;
+    private int _nIdTask;
+    private int _nCount;
+
+    /**
+     * Returns the IdDataSource
+     * 
+     * @return The IdDataSource
+     */
+    public String getIdDataSource( )
+    {
+        return _strIdDataSource;
+    }
+
+    /**
+     * Sets the IdDataSource
+     * 
+     * @param strIdDataSource
+     *            The IdDataSource
+     */
+    public void setIdDataSource( String strIdDataSource )
+    {
+        _strIdDataSource = strIdDataSource;
+    }
+
+    /**
+     * Returns the IdTask
+     * 
+     * @return The IdTask
+     */
+    public int getIdTask( )
+    {
+        return _nIdTask;
+    }
+
+    /**
+     * Sets the IdTask
+     * 
+     * @param nIdTask
+     *            The IdTask
+     */
+    public void setIdTask( int nIdTask )
+    {
+        _nIdTask = nIdTask;
+    }
+
+    /**
+     * Returns the Count
+     * 
+     * @return The Count
+     */
+    public int getCount( )
+    {
+        return _nCount;
+    }
+
+    /**
+     * Sets the Count
+     * 
+     * @param nCount
+     *            The Count
+     */
+    public void setCount( int nCount )
+    {
+        _nCount = nCount;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor on the indexer actions of a query, read by keyset pages of the fetch size in the order of their ids. Only one page is held in memory and no
+ * connection is kept open between two pages, so that the actions can be processed whatever the size of the queue.
+ */
+public class IndexerActionCursor implements Iterator<IndexerAction>
+{
+    private final PageLoader _loader;
+    private final int _nFetchSize;
+    private List<IndexerAction> _listPage;
+    private int _nPosition;
+    private int _nIdActionAfter;
+    private boolean _bLastPage;
+
+    /**
+     * Constructor
+     * 
+     * @param loader
+     *            the loader of the pages
+     * @param nFetchSize
+     *            the number of actions read by page
+     */
+    public IndexerActionCursor( PageLoader loader, int nFetchSize )
+    {
+        _loader = loader;
+        _nFetchSize = Math.max( 1, nFetchSize );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext( )
+    {
+        if ( ( _listPage == null ) || ( ( _nPosition == _listPage.size( ) ) && !_bLastPage ) )
+        {
+            _listPage = _loader.load( _nIdActionAfter, _nFetchSize );
+            _nPosition = 0;
+            _bLastPage = _listPage.size( ) < _nFetchSize;
+            if ( !_listPage.isEmpty( ) )
+            {
+                _nIdActionAfter = _listPage.get( _listPage.size( ) - 1 ).getId( );
+            }
+        }
+        return _nPosition < _listPage.size( );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IndexerAction next( )
+    {
+        if ( !hasNext( ) )
+        {
+            throw new NoSuchElementException( );
+        }
+        return _listPage.get( _nPosition++ );
+    }
+
+    /**
+     * Loader of a keyset page of indexer actions
+     */
+    @FunctionalInterface
+    public interface PageLoader
+    {
+        /**
+         * Load a page
+         * 
+         * @param nIdActionAfter
+         *            the id of the last action of the previous page, or 0 for the first page
+         * @param nLimit
+         *            the maximum number of actions of the page
+         * @return the actions of the page, in the order of their ids
+         */
+        List<IndexerAction> load( int nIdActionAfter, int nLimit );
+    }
+}
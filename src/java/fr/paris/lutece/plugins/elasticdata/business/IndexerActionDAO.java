@@ -35,15 +35,19 @@
 package fr.paris.lutece.plugins.elasticdata.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.ReferenceList;
 import fr.paris.lutece.util.sql.DAOUtil;
 import jakarta.enterprise.context.ApplicationScoped;
 
 import java.sql.Statement;
+import java.sql.Timestamp;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * This class provides Data Access methods for IndexerAction objects
@@ -54,18 +58,53 @@ public final class IndexerActionDAO implements IIndexerActionDAO
     // Constants
     private static final String SQL_QUERY_SELECT = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action WHERE id_action = ?";
     private static final String SQL_QUERY_SELECT_BY_ID_RESOURCE = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action WHERE id_resource = ? AND id_datasource = ?";
-    private static final String SQL_QUERY_INSERT = "INSERT INTO elasticdata_indexer_action ( id_resource, id_task, id_datasource ) VALUES ( ?, ?, ? ) ";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO elasticdata_indexer_action ( id_resource, id_task, id_datasource, priority ) VALUES ( ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_UPSERT_MYSQL = "INSERT INTO elasticdata_indexer_action ( id_resource, id_task, id_datasource, priority ) VALUES ( ?, ?, ?, ? ) ON DUPLICATE KEY UPDATE id_task = CASE WHEN VALUES( id_task ) = "
+            + IndexerAction.TASK_DELETE + " THEN VALUES( id_task ) ELSE id_task END, priority = GREATEST( priority, VALUES( priority ) ), lease_owner = NULL, lease_expiry = NULL";
+    private static final String SQL_QUERY_UPSERT_POSTGRESQL = "INSERT INTO elasticdata_indexer_action ( id_resource, id_task, id_datasource, priority ) VALUES ( ?, ?, ?, ? ) ON CONFLICT ( id_datasource, id_resource ) DO UPDATE SET id_task = CASE WHEN EXCLUDED.id_task = "
+            + IndexerAction.TASK_DELETE
+            + " THEN EXCLUDED.id_task ELSE elasticdata_indexer_action.id_task END, priority = GREATEST( elasticdata_indexer_action.priority, EXCLUDED.priority ), lease_owner = NULL, lease_expiry = NULL";
     private static final String SQL_QUERY_DELETE = "DELETE FROM elasticdata_indexer_action WHERE id_action = ? ";
-    private static final String SQL_QUERY_UPDATE = "UPDATE elasticdata_indexer_action SET id_action = ?, id_resource = ?, id_task = ?, id_datasource = ? WHERE id_action = ?";
+    private static final String SQL_QUERY_UPDATE_TASK = "UPDATE elasticdata_indexer_action SET id_task = ? WHERE id_action = ?";
+    private static final String SQL_QUERY_UPDATE = "UPDATE elasticdata_indexer_action SET id_action = ?, id_resource = ?, id_task = ?, id_datasource = ?, priority = ? WHERE id_action = ?";
     private static final String SQL_QUERY_SELECTALL = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action";
     private static final String SQL_QUERY_SELECTALL_ID = "SELECT id_action FROM elasticdata_indexer_action";
     private static final String SQL_QUERY_SELECTALL_ID_RESOURCE_BY_DATASOURCE_ID_TASK = "SELECT id_resource FROM elasticdata_indexer_action WHERE id_datasource = ? AND id_task = ?";
     private static final String SQL_QUERY_SELECTALL_BY_DATASOURCE_ID_TASK = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action WHERE id_datasource = ? AND id_task = ?";
-    private static final String SQL_QUERY_SELECTALL_BY_DATASOURCE = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action WHERE id_datasource = ?";
+    private static final String SQL_QUERY_SELECTALL_BY_DATASOURCE = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action WHERE id_datasource = ? ORDER BY id_action";
+    private static final String SQL_QUERY_SELECT_PAGE_BY_DATASOURCE = "SELECT id_action, id_resource, id_task, id_datasource, priority FROM elasticdata_indexer_action WHERE id_datasource = ? AND id_action > ? ORDER BY id_action LIMIT ?";
+    private static final String SQL_QUERY_SELECT_PAGE_BY_DATASOURCE_ID_TASK = "SELECT id_action, id_resource, id_task, id_datasource, priority FROM elasticdata_indexer_action WHERE id_datasource = ? AND id_task = ? AND id_action > ? ORDER BY id_action LIMIT ?";
+    private static final String SQL_QUERY_SELECT_FILTERED_PAGE = "SELECT id_action, id_resource, id_task, id_datasource, priority FROM elasticdata_indexer_action WHERE id_action ";
+    private static final String SQL_QUERY_COUNT_BY_DATASOURCE_ID_TASK = "SELECT id_datasource, id_task, COUNT(*) FROM elasticdata_indexer_action GROUP BY id_datasource, id_task ORDER BY id_datasource, id_task";
+    private static final String SQL_AFTER = "> ?";
+    private static final String SQL_BEFORE = "< ?";
+    private static final String SQL_FILTER_DATASOURCE = " AND id_datasource = ?";
+    private static final String SQL_FILTER_ID_TASK = " AND id_task = ?";
+    private static final String SQL_ORDER_BY_ID_ACTION = " ORDER BY id_action";
+    private static final String SQL_ORDER_BY_ID_ACTION_DESC = " ORDER BY id_action DESC";
+    private static final String SQL_LIMIT = " LIMIT ?";
+    private static final String SQL_QUERY_SELECT_CLAIMABLE_PAGE = "SELECT id_action, id_resource, id_task, id_datasource, priority FROM elasticdata_indexer_action WHERE id_datasource = ? AND priority = ? AND id_action > ? AND ( lease_expiry IS NULL OR lease_expiry < ? ) ORDER BY id_action LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String SQL_QUERY_LEASE_BY_LIST = "UPDATE elasticdata_indexer_action SET lease_owner = ?, lease_expiry = ? WHERE id_action IN (?";
+    private static final String SQL_QUERY_SELECT_CLAIMABLE_PAGE_IDS = "SELECT id_action FROM elasticdata_indexer_action WHERE id_datasource = ? AND priority = ? AND id_action > ? AND ( lease_expiry IS NULL OR lease_expiry < ? ) ORDER BY id_action LIMIT ?";
+    private static final String SQL_QUERY_LEASE_CLAIMABLE_BY_LIST = "UPDATE elasticdata_indexer_action SET lease_owner = ?, lease_expiry = ? WHERE ( lease_expiry IS NULL OR lease_expiry < ? ) AND id_action IN (?";
+    private static final String SQL_QUERY_SELECT_BY_LEASE_OWNER = "SELECT id_action, id_resource, id_task, id_datasource, priority FROM elasticdata_indexer_action WHERE lease_owner = ? ORDER BY id_action";
+    private static final String SQL_QUERY_RELEASE = "UPDATE elasticdata_indexer_action SET lease_owner = NULL, lease_expiry = NULL WHERE lease_owner = ?";
     private static final String SQL_QUERY_SELECTALL_BY_IDS = "SELECT id_action, id_resource, id_task, id_datasource FROM elasticdata_indexer_action WHERE id_action IN (  ";
     private static final String SQL_QUERY_DELETE_BY_LIST = "DELETE FROM elasticdata_indexer_action WHERE id_datasource = ? AND id_resource IN (?";
+    private static final String SQL_QUERY_DELETE_BY_ID_LIST = "DELETE FROM elasticdata_indexer_action WHERE id_action IN (?";
+    private static final String SQL_QUERY_DELETE_LEASED_BY_ID_LIST = "DELETE FROM elasticdata_indexer_action WHERE lease_owner = ? AND id_action IN (?";
     private static final String SQL_CLOSE_PARENTHESIS = " ) ";
     private static final String SQL_ADITIONAL_PARAMETER = ",?";
+    // Sizes of the IN lists : a list is split into chunks of these fixed shapes so that only a few distinct statements are prepared
+    private static final int [ ] IN_LIST_SHAPES = {
+            1, 16, 128, 1024
+    };
+    private static final int BATCH_MAX_SIZE = 1024;
+    private static final String PROPERTY_UPSERT_DIALECT = "elasticdata.indexer_action_upsert_dialect";
+    private static final String DIALECT_POSTGRESQL = "postgresql";
+    private static final String SQL_QUERY_UPSERT = DIALECT_POSTGRESQL.equalsIgnoreCase( AppPropertiesService.getProperty( PROPERTY_UPSERT_DIALECT, "mysql" ) )
+            ? SQL_QUERY_UPSERT_POSTGRESQL
+            : SQL_QUERY_UPSERT_MYSQL;
 
     /**
      * {@inheritDoc }
@@ -79,6 +118,7 @@ public final class IndexerActionDAO implements IIndexerActionDAO
             daoUtil.setString( nIndex++, indexerAction.getIdResource( ) );
             daoUtil.setInt( nIndex++, indexerAction.getIdTask( ) );
             daoUtil.setString( nIndex++, indexerAction.getIdDataSource( ) );
+            daoUtil.setInt( nIndex, indexerAction.getPriority( ) );
 
             daoUtil.executeUpdate( );
             if ( daoUtil.nextGeneratedKey( ) )
@@ -89,6 +129,88 @@ public final class IndexerActionDAO implements IIndexerActionDAO
 
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insertBatch( List<IndexerAction> listIndexerActions, Plugin plugin )
+    {
+        if ( !listIndexerActions.isEmpty( ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+            {
+                int nBatched = 0;
+                for ( IndexerAction indexerAction : listIndexerActions )
+                {
+                    int nIndex = 1;
+                    daoUtil.setString( nIndex++, indexerAction.getIdResource( ) );
+                    daoUtil.setInt( nIndex++, indexerAction.getIdTask( ) );
+                    daoUtil.setString( nIndex++, indexerAction.getIdDataSource( ) );
+                    daoUtil.setInt( nIndex, indexerAction.getPriority( ) );
+                    daoUtil.addBatch( );
+                    if ( ++nBatched % BATCH_MAX_SIZE == 0 )
+                    {
+                        daoUtil.executeBatch( );
+                    }
+                }
+                if ( nBatched % BATCH_MAX_SIZE != 0 )
+                {
+                    daoUtil.executeBatch( );
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void upsert( IndexerAction indexerAction, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPSERT, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, indexerAction.getIdResource( ) );
+            daoUtil.setInt( nIndex++, indexerAction.getIdTask( ) );
+            daoUtil.setString( nIndex++, indexerAction.getIdDataSource( ) );
+            daoUtil.setInt( nIndex, indexerAction.getPriority( ) );
+
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void upsertBatch( List<IndexerAction> listIndexerActions, Plugin plugin )
+    {
+        if ( !listIndexerActions.isEmpty( ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPSERT, plugin ) )
+            {
+                int nBatched = 0;
+                for ( IndexerAction indexerAction : listIndexerActions )
+                {
+                    int nIndex = 1;
+                    daoUtil.setString( nIndex++, indexerAction.getIdResource( ) );
+                    daoUtil.setInt( nIndex++, indexerAction.getIdTask( ) );
+                    daoUtil.setString( nIndex++, indexerAction.getIdDataSource( ) );
+                    daoUtil.setInt( nIndex, indexerAction.getPriority( ) );
+                    daoUtil.addBatch( );
+                    if ( ++nBatched % BATCH_MAX_SIZE == 0 )
+                    {
+                        daoUtil.executeBatch( );
+                    }
+                }
+                if ( nBatched % BATCH_MAX_SIZE != 0 )
+                {
+                    daoUtil.executeBatch( );
+                }
+            }
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -163,31 +285,27 @@ public final class IndexerActionDAO implements IIndexerActionDAO
     @Override
     public void deleteByIdResourceList( List<String> listIdResource, String strIdDataSource, Plugin plugin )
     {
-        int nlistIdResourceSize = listIdResource.size( );
-
-        if ( nlistIdResourceSize > 0 )
-        {
-            StringBuilder sbSQL = new StringBuilder( SQL_QUERY_DELETE_BY_LIST );
-
-            for ( int i = 1; i < nlistIdResourceSize; i++ )
-            {
-                sbSQL.append( SQL_ADITIONAL_PARAMETER );
-            }
-
-            sbSQL.append( SQL_CLOSE_PARENTHESIS );
-
-            try ( DAOUtil daoUtil = new DAOUtil( sbSQL.toString( ), plugin ) )
-            {
-                daoUtil.setString( 1, strIdDataSource );
+        executeInListBatch( SQL_QUERY_DELETE_BY_LIST, 1, daoUtil -> daoUtil.setString( 1, strIdDataSource ), listIdResource, DAOUtil::setString, plugin );
+    }
 
-                for ( int i = 0; i < nlistIdResourceSize; i++ )
-                {
-                    daoUtil.setString( i + 2, listIdResource.get( i ) );
-                }
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteByActionIds( List<Integer> listIdAction, Plugin plugin )
+    {
+        executeInListBatch( SQL_QUERY_DELETE_BY_ID_LIST, 0, daoUtil -> {
+        }, listIdAction, DAOUtil::setInt, plugin );
+    }
 
-                daoUtil.executeUpdate( );
-            }
-        }
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void deleteLeasedByIdList( List<Integer> listIdAction, String strLeaseOwner, Plugin plugin )
+    {
+        executeInListBatch( SQL_QUERY_DELETE_LEASED_BY_ID_LIST, 1, daoUtil -> daoUtil.setString( 1, strLeaseOwner ), listIdAction, DAOUtil::setInt,
+                plugin );
     }
 
     /**
@@ -204,12 +322,42 @@ public final class IndexerActionDAO implements IIndexerActionDAO
             daoUtil.setString( nIndex++, indexerAction.getIdResource( ) );
             daoUtil.setInt( nIndex++, indexerAction.getIdTask( ) );
             daoUtil.setString( nIndex++, indexerAction.getIdDataSource( ) );
+            daoUtil.setInt( nIndex++, indexerAction.getPriority( ) );
             daoUtil.setInt( nIndex, indexerAction.getId( ) );
 
             daoUtil.executeUpdate( );
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void updateTaskBatch( List<IndexerAction> listIndexerActions, Plugin plugin )
+    {
+        if ( !listIndexerActions.isEmpty( ) )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE_TASK, plugin ) )
+            {
+                int nBatched = 0;
+                for ( IndexerAction indexerAction : listIndexerActions )
+                {
+                    daoUtil.setInt( 1, indexerAction.getIdTask( ) );
+                    daoUtil.setInt( 2, indexerAction.getId( ) );
+                    daoUtil.addBatch( );
+                    if ( ++nBatched % BATCH_MAX_SIZE == 0 )
+                    {
+                        daoUtil.executeBatch( );
+                    }
+                }
+                if ( nBatched % BATCH_MAX_SIZE != 0 )
+                {
+                    daoUtil.executeBatch( );
+                }
+            }
+        }
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -303,6 +451,381 @@ public final class IndexerActionDAO implements IIndexerActionDAO
         }
     }
 
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexerAction> selectIndexerActionsPage( String strIdDataSource, int nIdActionAfter, int nLimit, Plugin plugin )
+    {
+        List<IndexerAction> indexerActionList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_PAGE_BY_DATASOURCE, plugin ) )
+        {
+            daoUtil.setString( 1, strIdDataSource );
+            daoUtil.setInt( 2, nIdActionAfter );
+            daoUtil.setInt( 3, nLimit );
+
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                indexerActionList.add( dataToObject( daoUtil ) );
+            }
+
+            return indexerActionList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexerAction> selectIndexerActionsPage( String strIdDataSource, int nIdTask, int nIdActionAfter, int nLimit, Plugin plugin )
+    {
+        List<IndexerAction> indexerActionList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_PAGE_BY_DATASOURCE_ID_TASK, plugin ) )
+        {
+            int nIndex = 1;
+
+            daoUtil.setString( nIndex++, strIdDataSource );
+            daoUtil.setInt( nIndex++, nIdTask );
+            daoUtil.setInt( nIndex++, nIdActionAfter );
+            daoUtil.setInt( nIndex, nLimit );
+
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                indexerActionList.add( dataToObject( daoUtil ) );
+            }
+
+            return indexerActionList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexerAction> selectFilteredIndexerActionsPage( String strIdDataSource, int nIdTask, int nIdAction, boolean bBackward, int nLimit,
+            Plugin plugin )
+    {
+        StringBuilder sbSQL = new StringBuilder( SQL_QUERY_SELECT_FILTERED_PAGE ).append( bBackward ? SQL_BEFORE : SQL_AFTER );
+        if ( strIdDataSource != null )
+        {
+            sbSQL.append( SQL_FILTER_DATASOURCE );
+        }
+        if ( nIdTask > 0 )
+        {
+            sbSQL.append( SQL_FILTER_ID_TASK );
+        }
+        sbSQL.append( bBackward ? SQL_ORDER_BY_ID_ACTION_DESC : SQL_ORDER_BY_ID_ACTION ).append( SQL_LIMIT );
+
+        List<IndexerAction> indexerActionList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( sbSQL.toString( ), plugin ) )
+        {
+            int nIndex = 1;
+
+            daoUtil.setInt( nIndex++, nIdAction );
+            if ( strIdDataSource != null )
+            {
+                daoUtil.setString( nIndex++, strIdDataSource );
+            }
+            if ( nIdTask > 0 )
+            {
+                daoUtil.setInt( nIndex++, nIdTask );
+            }
+            daoUtil.setInt( nIndex, nLimit );
+
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                indexerActionList.add( dataToObject( daoUtil ) );
+            }
+        }
+        if ( bBackward )
+        {
+            Collections.reverse( indexerActionList );
+        }
+
+        return indexerActionList;
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexerActionCount> selectIndexerActionsCounts( Plugin plugin )
+    {
+        List<IndexerActionCount> countList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_COUNT_BY_DATASOURCE_ID_TASK, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                IndexerActionCount count = new IndexerActionCount( );
+                int nIndex = 1;
+
+                count.setIdDataSource( daoUtil.getString( nIndex++ ) );
+                count.setIdTask( daoUtil.getInt( nIndex++ ) );
+                count.setCount( daoUtil.getInt( nIndex ) );
+
+                countList.add( count );
+            }
+
+            return countList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexerAction> selectClaimableIndexerActionsPage( String strIdDataSource, int nPriority, int nIdActionAfter, int nLimit, Timestamp now,
+            Plugin plugin )
+    {
+        List<IndexerAction> indexerActionList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_CLAIMABLE_PAGE, plugin ) )
+        {
+            int nIndex = 1;
+
+            daoUtil.setString( nIndex++, strIdDataSource );
+            daoUtil.setInt( nIndex++, nPriority );
+            daoUtil.setInt( nIndex++, nIdActionAfter );
+            daoUtil.setTimestamp( nIndex++, now );
+            daoUtil.setInt( nIndex, nLimit );
+
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                indexerActionList.add( dataToObject( daoUtil ) );
+            }
+
+            return indexerActionList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void lease( List<Integer> listIdAction, String strLeaseOwner, Timestamp leaseExpiry, Plugin plugin )
+    {
+        executeInListBatch( SQL_QUERY_LEASE_BY_LIST, 2, daoUtil -> {
+            daoUtil.setString( 1, strLeaseOwner );
+            daoUtil.setTimestamp( 2, leaseExpiry );
+        }, listIdAction, DAOUtil::setInt, plugin );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public int leaseClaimablePage( String strIdDataSource, int nPriority, int nIdActionAfter, int nLimit, String strLeaseOwner, Timestamp leaseExpiry,
+            Timestamp now, Plugin plugin )
+    {
+        List<Integer> listIdAction = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_CLAIMABLE_PAGE_IDS, plugin ) )
+        {
+            int nIndex = 1;
+
+            daoUtil.setString( nIndex++, strIdDataSource );
+            daoUtil.setInt( nIndex++, nPriority );
+            daoUtil.setInt( nIndex++, nIdActionAfter );
+            daoUtil.setTimestamp( nIndex++, now );
+            daoUtil.setInt( nIndex, nLimit );
+
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                listIdAction.add( daoUtil.getInt( 1 ) );
+            }
+        }
+
+        // The lease condition is checked again by the update, so that two nodes claiming the same page at once don't lease the same actions
+        executeInListBatch( SQL_QUERY_LEASE_CLAIMABLE_BY_LIST, 3, daoUtil -> {
+            daoUtil.setString( 1, strLeaseOwner );
+            daoUtil.setTimestamp( 2, leaseExpiry );
+            daoUtil.setTimestamp( 3, now );
+        }, listIdAction, DAOUtil::setInt, plugin );
+
+        return listIdAction.size( );
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexerAction> selectLeasedIndexerActions( String strLeaseOwner, Plugin plugin )
+    {
+        List<IndexerAction> indexerActionList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT_BY_LEASE_OWNER, plugin ) )
+        {
+            daoUtil.setString( 1, strLeaseOwner );
+
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                indexerActionList.add( dataToObject( daoUtil ) );
+            }
+
+            return indexerActionList;
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void release( String strLeaseOwner, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_RELEASE, plugin ) )
+        {
+            daoUtil.setString( 1, strLeaseOwner );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * Execute a statement ending with an IN list for a list of values. The full chunks of the largest shape are sent in a single JDBC batch, and the
+     * remaining values in one statement of the smallest shape that holds them, padded by repeating the last value.
+     * 
+     * @param strQuery
+     *            the statement, ending with the opening of the IN list and its first parameter
+     * @param nPrefixParameters
+     *            the number of parameters before the IN list
+     * @param prefixBinder
+     *            the binder of the parameters before the IN list
+     * @param listValues
+     *            the values of the IN list
+     * @param valueBinder
+     *            the binder of a value of the IN list
+     * @param plugin
+     *            the Plugin
+     */
+    private static <T> void executeInListBatch( String strQuery, int nPrefixParameters, Consumer<DAOUtil> prefixBinder, List<T> listValues,
+            ValueBinder<T> valueBinder, Plugin plugin )
+    {
+        int nMaxShape = IN_LIST_SHAPES [IN_LIST_SHAPES.length - 1];
+        int nFullChunks = listValues.size( ) / nMaxShape;
+        if ( nFullChunks > 0 )
+        {
+            try ( DAOUtil daoUtil = new DAOUtil( getInListQuery( strQuery, nMaxShape ), plugin ) )
+            {
+                for ( int nChunk = 0; nChunk < nFullChunks; nChunk++ )
+                {
+                    bindInList( daoUtil, nPrefixParameters, prefixBinder, listValues, nChunk * nMaxShape, nMaxShape, valueBinder );
+                    daoUtil.addBatch( );
+                }
+                daoUtil.executeBatch( );
+            }
+        }
+        int nFrom = nFullChunks * nMaxShape;
+        if ( nFrom < listValues.size( ) )
+        {
+            int nShape = getInListShape( listValues.size( ) - nFrom );
+            try ( DAOUtil daoUtil = new DAOUtil( getInListQuery( strQuery, nShape ), plugin ) )
+            {
+                bindInList( daoUtil, nPrefixParameters, prefixBinder, listValues, nFrom, nShape, valueBinder );
+                daoUtil.executeUpdate( );
+            }
+        }
+    }
+
+    /**
+     * Bind the parameters of a chunk of an IN list statement
+     * 
+     * @param daoUtil
+     *            the statement
+     * @param nPrefixParameters
+     *            the number of parameters before the IN list
+     * @param prefixBinder
+     *            the binder of the parameters before the IN list
+     * @param listValues
+     *            the values of the IN list
+     * @param nFrom
+     *            the index of the first value of the chunk
+     * @param nShape
+     *            the size of the IN list, the values missing to fill it are replaced by the last value of the list
+     * @param valueBinder
+     *            the binder of a value of the IN list
+     */
+    static <T> void bindInList( DAOUtil daoUtil, int nPrefixParameters, Consumer<DAOUtil> prefixBinder, List<T> listValues, int nFrom, int nShape,
+            ValueBinder<T> valueBinder )
+    {
+        prefixBinder.accept( daoUtil );
+        int nLast = listValues.size( ) - 1;
+        for ( int i = 0; i < nShape; i++ )
+        {
+            valueBinder.bind( daoUtil, nPrefixParameters + i + 1, listValues.get( Math.min( nFrom + i, nLast ) ) );
+        }
+    }
+
+    /**
+     * Returns the smallest IN list shape holding a number of values
+     * 
+     * @param nSize
+     *            the number of values, not greater than the largest shape
+     * @return the size of the IN list
+     */
+    static int getInListShape( int nSize )
+    {
+        for ( int nShape : IN_LIST_SHAPES )
+        {
+            if ( nShape >= nSize )
+            {
+                return nShape;
+            }
+        }
+        return IN_LIST_SHAPES [IN_LIST_SHAPES.length - 1];
+    }
+
+    /**
+     * Complete a statement with an IN list of a given size
+     * 
+     * @param strQuery
+     *            the statement, ending with the opening of the IN list and its first parameter
+     * @param nShape
+     *            the size of the IN list
+     * @return the statement
+     */
+    static String getInListQuery( String strQuery, int nShape )
+    {
+        StringBuilder sbSQL = new StringBuilder( strQuery );
+
+        for ( int i = 1; i < nShape; i++ )
+        {
+            sbSQL.append( SQL_ADITIONAL_PARAMETER );
+        }
+
+        return sbSQL.append( SQL_CLOSE_PARENTHESIS ).toString( );
+    }
+
+    /**
+     * Create an indexerAction from the current row of a query
+     * 
+     * @param daoUtil
+     *            the DAOUtil positioned on the row
+     * @return the indexerAction
+     */
+    private IndexerAction dataToObject( DAOUtil daoUtil )
+    {
+        IndexerAction indexerAction = new IndexerAction( );
+        int nIndex = 1;
+
+        indexerAction.setId( daoUtil.getInt( nIndex++ ) );
+        indexerAction.setIdResource( daoUtil.getString( nIndex++ ) );
+        indexerAction.setIdTask( daoUtil.getInt( nIndex++ ) );
+        indexerAction.setIdDataSource( daoUtil.getString( nIndex++ ) );
+        indexerAction.setPriority( daoUtil.getInt( nIndex ) );
+
+        return indexerAction;
+    }
+
     /**
      * {@inheritDoc }
      */
@@ -416,4 +939,26 @@ public final class IndexerActionDAO implements IIndexerActionDAO
 		return indexerActionList;
 		
 	}
+
+    /**
+     * Binder of a value of an IN list
+     * 
+     * @param <T>
+     *            the type of the values
+     */
+    @FunctionalInterface
+    interface ValueBinder<T>
+    {
+        /**
+         * Bind a value
+         * 
+         * @param daoUtil
+         *            the statement
+         * @param nIndex
+         *            the index of the parameter
+         * @param value
+         *            the value
+         */
+        void bind( DAOUtil daoUtil, int nIndex, T value );
+    }
 }
@@ -35,11 +35,17 @@ package fr.paris.lutece.plugins.elasticdata.business;
 
 import fr.paris.lutece.portal.service.plugin.Plugin;
 import fr.paris.lutece.portal.service.plugin.PluginService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.ReferenceList;
 import jakarta.enterprise.inject.spi.CDI;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class provides instances management methods (create, find, ...) for IndexerAction objects
@@ -49,6 +55,8 @@ public final class IndexerActionHome
     // Static variable pointed at the DAO instance
     private static IIndexerActionDAO _dao = CDI.current( ).select( IIndexerActionDAO.class ).get( );
     private static Plugin _plugin = PluginService.getPlugin( "elasticdata" );
+    private static final String PROPERTY_FETCH_SIZE = "elasticdata.indexer_action_fetch_size";
+    private static final int FETCH_SIZE = AppPropertiesService.getPropertyInt( PROPERTY_FETCH_SIZE, 1000 );
 
     /**
      * Private constructor - this class need not be instantiated
@@ -71,6 +79,39 @@ public final class IndexerActionHome
         return indexerAction;
     }
 
+    /**
+     * Create indexerActions with JDBC batches. The ids of the created indexerActions are not set.
+     * 
+     * @param listIndexerActions
+     *            The indexerActions to create
+     */
+    public static void createBatch( List<IndexerAction> listIndexerActions )
+    {
+        _dao.insertBatch( listIndexerActions, _plugin );
+    }
+
+    /**
+     * Create an indexerAction, or collapse its task with the task already pending for the resource, in a single statement
+     * 
+     * @param indexerAction
+     *            The instance of the IndexerAction which contains the informations to store
+     */
+    public static void upsert( IndexerAction indexerAction )
+    {
+        _dao.upsert( indexerAction, _plugin );
+    }
+
+    /**
+     * Upsert indexerActions with a single JDBC batch
+     * 
+     * @param listIndexerActions
+     *            The indexerActions to upsert
+     */
+    public static void upsertBatch( List<IndexerAction> listIndexerActions )
+    {
+        _dao.upsertBatch( listIndexerActions, _plugin );
+    }
+
     /**
      * Update of the indexerAction which is specified in parameter
      * 
@@ -85,6 +126,17 @@ public final class IndexerActionHome
         return indexerAction;
     }
 
+    /**
+     * Update the task of indexerActions with JDBC batches
+     * 
+     * @param listIndexerActions
+     *            The indexerActions, with their id and their new task
+     */
+    public static void updateTaskBatch( List<IndexerAction> listIndexerActions )
+    {
+        _dao.updateTaskBatch( listIndexerActions, _plugin );
+    }
+
     /**
      * Remove the indexerAction whose identifier is specified in parameter
      * 
@@ -109,6 +161,30 @@ public final class IndexerActionHome
         _dao.deleteByIdResourceList( listIdResource, strIdDataSource, _plugin );
     }
 
+    /**
+     * Remove the indexerActions of a list of identifiers
+     * 
+     * @param listIdAction
+     *            The list of indexerAction identifiers
+     */
+    public static void removeByActionIds( List<Integer> listIdAction )
+    {
+        _dao.deleteByActionIds( listIdAction, _plugin );
+    }
+
+    /**
+     * Remove the indexerActions of a list of identifiers that are still leased by an owner
+     * 
+     * @param listIdAction
+     *            The list of indexerAction identifiers
+     * @param strLeaseOwner
+     *            the owner of the lease
+     */
+    public static void removeLeasedByIdList( List<Integer> listIdAction, String strLeaseOwner )
+    {
+        _dao.deleteLeasedByIdList( listIdAction, strLeaseOwner, _plugin );
+    }
+
     /**
      * Returns an instance of a indexerAction whose identifier is specified in parameter
      * 
@@ -163,6 +239,208 @@ public final class IndexerActionHome
         return _dao.selectIndexerActionsList( strIdDataSource, _plugin );
     }
 
+    /**
+     * Load a page of the datasource indexerAction objects, in the order of their ids
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @return the list which contains the data of the indexerAction objects of the page
+     */
+    public static List<IndexerAction> getIndexerActionsPage( String strIdDataSource, int nIdActionAfter, int nLimit )
+    {
+        return _dao.selectIndexerActionsPage( strIdDataSource, nIdActionAfter, nLimit, _plugin );
+    }
+
+    /**
+     * Stream the datasource indexerAction objects in the order of their ids, read by pages of the fetch size
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @return the stream of the indexerAction objects
+     */
+    public static Stream<IndexerAction> streamIndexerActions( String strIdDataSource )
+    {
+        IndexerActionCursor cursor = new IndexerActionCursor(
+                ( nIdActionAfter, nLimit ) -> _dao.selectIndexerActionsPage( strIdDataSource, nIdActionAfter, nLimit, _plugin ), FETCH_SIZE );
+        return stream( cursor );
+    }
+
+    /**
+     * Stream the indexerAction objects of a datasource and a task in the order of their ids, read by pages of the fetch size
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nIdTask
+     *            the task id
+     * @return the stream of the indexerAction objects
+     */
+    public static Stream<IndexerAction> streamIndexerActions( String strIdDataSource, int nIdTask )
+    {
+        return streamIndexerActions( strIdDataSource, nIdTask, FETCH_SIZE );
+    }
+
+    /**
+     * Stream the indexerAction objects of a datasource and a task in the order of their ids, read by pages
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nIdTask
+     *            the task id
+     * @param nFetchSize
+     *            the number of actions read by page
+     * @return the stream of the indexerAction objects
+     */
+    public static Stream<IndexerAction> streamIndexerActions( String strIdDataSource, int nIdTask, int nFetchSize )
+    {
+        IndexerActionCursor cursor = new IndexerActionCursor(
+                ( nIdActionAfter, nLimit ) -> _dao.selectIndexerActionsPage( strIdDataSource, nIdTask, nIdActionAfter, nLimit, _plugin ), nFetchSize );
+        return stream( cursor );
+    }
+
+    /**
+     * Stream the resource ids of the indexerAction objects of a datasource and a task in the order of the actions, read by pages of the fetch size
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nIdTask
+     *            the task id
+     * @return the stream of the resource ids
+     */
+    public static Stream<String> streamIdResourceIndexerActions( String strIdDataSource, int nIdTask )
+    {
+        return streamIndexerActions( strIdDataSource, nIdTask, FETCH_SIZE ).map( IndexerAction::getIdResource );
+    }
+
+    /**
+     * Wrap a cursor in a sequential stream
+     * 
+     * @param cursor
+     *            the cursor
+     * @return the stream
+     */
+    private static Stream<IndexerAction> stream( IndexerActionCursor cursor )
+    {
+        return StreamSupport.stream( Spliterators.spliteratorUnknownSize( cursor, Spliterator.ORDERED | Spliterator.NONNULL ), false );
+    }
+
+    /**
+     * Load a keyset page of the indexerAction objects, optionally filtered by data source and task
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source, or null for all the data sources
+     * @param nIdTask
+     *            the task id, or 0 for all the tasks
+     * @param nIdAction
+     *            the keyset of the page : the actions after this id, or before it if the page is read backward
+     * @param bBackward
+     *            true to read the page before the keyset
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @return the list which contains the data of the indexerAction objects of the page, in the order of their ids
+     */
+    public static List<IndexerAction> getFilteredIndexerActionsPage( String strIdDataSource, int nIdTask, int nIdAction, boolean bBackward, int nLimit )
+    {
+        return _dao.selectFilteredIndexerActionsPage( strIdDataSource, nIdTask, nIdAction, bBackward, nLimit, _plugin );
+    }
+
+    /**
+     * Count the indexerAction objects by data source and task with an aggregate query
+     * 
+     * @return the counts of the indexerAction objects
+     */
+    public static List<IndexerActionCount> getIndexerActionsCounts( )
+    {
+        return _dao.selectIndexerActionsCounts( _plugin );
+    }
+
+    /**
+     * Load and lock a page of a priority lane of the datasource indexerAction objects that are not leased, skipping the rows locked by other
+     * transactions
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nPriority
+     *            the priority lane of the actions
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param now
+     *            the current time, the leases expired before are ignored
+     * @return the list which contains the data of the indexerAction objects of the page
+     */
+    public static List<IndexerAction> getClaimableIndexerActionsPage( String strIdDataSource, int nPriority, int nIdActionAfter, int nLimit, Timestamp now )
+    {
+        return _dao.selectClaimableIndexerActionsPage( strIdDataSource, nPriority, nIdActionAfter, nLimit, now, _plugin );
+    }
+
+    /**
+     * Lease a list of indexerAction objects
+     * 
+     * @param listIdAction
+     *            The list of indexerAction identifiers
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param leaseExpiry
+     *            the expiry of the lease
+     */
+    public static void lease( List<Integer> listIdAction, String strLeaseOwner, Timestamp leaseExpiry )
+    {
+        _dao.lease( listIdAction, strLeaseOwner, leaseExpiry, _plugin );
+    }
+
+    /**
+     * Lease a page of a priority lane of the datasource indexerAction objects that are not leased with a conditional update of the selected page
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @param nPriority
+     *            the priority lane of the actions
+     * @param nIdActionAfter
+     *            the id of the last action of the previous page, or 0 for the first page
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param leaseExpiry
+     *            the expiry of the lease
+     * @param now
+     *            the current time, the leases expired before are ignored
+     * @return the number of actions selected for the page, including the ones leased by another node in the meantime
+     */
+    public static int leaseClaimablePage( String strIdDataSource, int nPriority, int nIdActionAfter, int nLimit, String strLeaseOwner,
+            Timestamp leaseExpiry, Timestamp now )
+    {
+        return _dao.leaseClaimablePage( strIdDataSource, nPriority, nIdActionAfter, nLimit, strLeaseOwner, leaseExpiry, now, _plugin );
+    }
+
+    /**
+     * Load the indexerAction objects of a lease
+     * 
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @return the list which contains the data of the leased indexerAction objects
+     */
+    public static List<IndexerAction> getLeasedIndexerActions( String strLeaseOwner )
+    {
+        return _dao.selectLeasedIndexerActions( strLeaseOwner, _plugin );
+    }
+
+    /**
+     * Release the indexerAction objects of a lease
+     * 
+     * @param strLeaseOwner
+     *            the owner of the lease
+     */
+    public static void release( String strLeaseOwner )
+    {
+        _dao.release( strLeaseOwner, _plugin );
+    }
+
 
     /**
      * Load the id of all the indexerAction objects and returns them as a list
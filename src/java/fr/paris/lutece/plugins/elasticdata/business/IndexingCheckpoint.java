@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import java.io.Serializable;
+import java.sql.Timestamp;
+
+/**
+ * This is the business class for the object IndexingCheckpoint : the progress of the last full indexing of a data source, kept until the run completes so
+ * that an interrupted run can be resumed
+ */
+public class IndexingCheckpoint implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    // Variables declarations
+    private String _strIdDataSource;
+    private String _strRunId;
+    private String _strTargetIndex;
+    private String _strLastIdResource;
+    private int _nNbIndexed;
+    private Timestamp _dateUpdate;
+
+    /**
+     * Returns the IdDataSource
+     * 
+     * @return The IdDataSource
+     */
+    public String getIdDataSource( )
+    {
+        return _strIdDataSource;
+    }
+
+    /**
+     * Sets the IdDataSource
+     * 
+     * @param strIdDataSource
+     *            The IdDataSource
+     */
+    public void setIdDataSource( String strIdDataSource )
+    {
+        _strIdDataSource = strIdDataSource;
+    }
+
+    /**
+     * Returns the RunId
+     * 
+     * @return The RunId
+     */
+    public String getRunId( )
+    {
+        return _strRunId;
+    }
+
+    /**
+     * Sets the RunId
+     * 
+     * @param strRunId
+     *            The RunId
+     */
+    public void setRunId( String strRunId )
+    {
+        _strRunId = strRunId;
+    }
+
+    /**
+     * Returns the TargetIndex
+     * 
+     * @return The TargetIndex
+     */
+    public String getTargetIndex( )
+    {
+        return _strTargetIndex;
+    }
+
+    /**
+     * Sets the TargetIndex
+     * 
+     * @param strTargetIndex
+     *            The TargetIndex
+     */
+    public void setTargetIndex( String strTargetIndex )
+    {
+        _strTargetIndex = strTargetIndex;
+    }
+
+    /**
+     * Returns the LastIdResource : the id of the last resource acknowledged by Elasticsearch
+     * 
+     * @return The LastIdResource
+     */
+    public String getLastIdResource( )
+    {
+        return _strLastIdResource;
+    }
+
+    /**
+     * Sets the LastIdResource
+     * 
+     * @param strLastIdResource
+     *            The LastIdResource
+     */
+    public void setLastIdResource( String strLastIdResource )
+    {
+        _strLastIdResource = strLastIdResource;
+    }
+
+    /**
+     * Returns the NbIndexed : the number of documents acknowledged since the beginning of the run
+     * 
+     * @return The NbIndexed
+     */
+    public int getNbIndexed( )
+    {
+        return _nNbIndexed;
+    }
+
+    /**
+     * Sets the NbIndexed
+     * 
+     * @param nNbIndexed
+     *            The NbIndexed
+     */
+    public void setNbIndexed( int nNbIndexed )
+    {
+        _nNbIndexed = nNbIndexed;
+    }
+
+    /**
+     * Returns the DateUpdate
+     * 
+     * @return The DateUpdate
+     */
+    public Timestamp getDateUpdate( )
+    {
+        return _dateUpdate;
+    }
+
+    /**
+     * Sets the DateUpdate
+     * 
+     * @param dateUpdate
+     *            The DateUpdate
+     */
+    public void setDateUpdate( Timestamp dateUpdate )
+    {
+        _dateUpdate = dateUpdate;
+    }
+}
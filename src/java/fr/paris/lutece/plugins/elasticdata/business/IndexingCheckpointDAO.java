@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.util.sql.DAOUtil;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This class provides Data Access methods for IndexingCheckpoint objects
+ */
+@ApplicationScoped
+public final class IndexingCheckpointDAO implements IIndexingCheckpointDAO
+{
+    // Constants
+    private static final String SQL_QUERY_SELECT = "SELECT id_datasource, run_id, target_index, last_id_resource, nb_indexed, date_update FROM elasticdata_indexing_checkpoint WHERE id_datasource = ?";
+    private static final String SQL_QUERY_INSERT = "INSERT INTO elasticdata_indexing_checkpoint ( id_datasource, run_id, target_index, last_id_resource, nb_indexed, date_update ) VALUES ( ?, ?, ?, ?, ?, ? ) ";
+    private static final String SQL_QUERY_DELETE = "DELETE FROM elasticdata_indexing_checkpoint WHERE id_datasource = ? ";
+    private static final String SQL_QUERY_UPDATE = "UPDATE elasticdata_indexing_checkpoint SET run_id = ?, target_index = ?, last_id_resource = ?, nb_indexed = ?, date_update = ? WHERE id_datasource = ?";
+    private static final String SQL_QUERY_SELECTALL = "SELECT id_datasource, run_id, target_index, last_id_resource, nb_indexed, date_update FROM elasticdata_indexing_checkpoint";
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void insert( IndexingCheckpoint indexingCheckpoint, Plugin plugin )
+    {
+        indexingCheckpoint.setDateUpdate( new Timestamp( System.currentTimeMillis( ) ) );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_INSERT, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, indexingCheckpoint.getIdDataSource( ) );
+            daoUtil.setString( nIndex++, indexingCheckpoint.getRunId( ) );
+            daoUtil.setString( nIndex++, indexingCheckpoint.getTargetIndex( ) );
+            daoUtil.setString( nIndex++, indexingCheckpoint.getLastIdResource( ) );
+            daoUtil.setInt( nIndex++, indexingCheckpoint.getNbIndexed( ) );
+            daoUtil.setTimestamp( nIndex, indexingCheckpoint.getDateUpdate( ) );
+
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void store( IndexingCheckpoint indexingCheckpoint, Plugin plugin )
+    {
+        indexingCheckpoint.setDateUpdate( new Timestamp( System.currentTimeMillis( ) ) );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_UPDATE, plugin ) )
+        {
+            int nIndex = 1;
+            daoUtil.setString( nIndex++, indexingCheckpoint.getRunId( ) );
+            daoUtil.setString( nIndex++, indexingCheckpoint.getTargetIndex( ) );
+            daoUtil.setString( nIndex++, indexingCheckpoint.getLastIdResource( ) );
+            daoUtil.setInt( nIndex++, indexingCheckpoint.getNbIndexed( ) );
+            daoUtil.setTimestamp( nIndex++, indexingCheckpoint.getDateUpdate( ) );
+            daoUtil.setString( nIndex, indexingCheckpoint.getIdDataSource( ) );
+
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public void delete( String strIdDataSource, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_DELETE, plugin ) )
+        {
+            daoUtil.setString( 1, strIdDataSource );
+            daoUtil.executeUpdate( );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public Optional<IndexingCheckpoint> load( String strIdDataSource, Plugin plugin )
+    {
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECT, plugin ) )
+        {
+            daoUtil.setString( 1, strIdDataSource );
+            daoUtil.executeQuery( );
+            IndexingCheckpoint indexingCheckpoint = null;
+
+            if ( daoUtil.next( ) )
+            {
+                indexingCheckpoint = dataToObject( daoUtil );
+            }
+
+            return Optional.ofNullable( indexingCheckpoint );
+        }
+    }
+
+    /**
+     * {@inheritDoc }
+     */
+    @Override
+    public List<IndexingCheckpoint> selectIndexingCheckpointsList( Plugin plugin )
+    {
+        List<IndexingCheckpoint> indexingCheckpointList = new ArrayList<>( );
+        try ( DAOUtil daoUtil = new DAOUtil( SQL_QUERY_SELECTALL, plugin ) )
+        {
+            daoUtil.executeQuery( );
+
+            while ( daoUtil.next( ) )
+            {
+                indexingCheckpointList.add( dataToObject( daoUtil ) );
+            }
+
+            return indexingCheckpointList;
+        }
+    }
+
+    /**
+     * Read the current row
+     * 
+     * @param daoUtil
+     *            the daoUtil positioned on the row
+     * @return the indexingCheckpoint
+     */
+    private static IndexingCheckpoint dataToObject( DAOUtil daoUtil )
+    {
+        IndexingCheckpoint indexingCheckpoint = new IndexingCheckpoint( );
+        int nIndex = 1;
+
+        indexingCheckpoint.setIdDataSource( daoUtil.getString( nIndex++ ) );
+        indexingCheckpoint.setRunId( daoUtil.getString( nIndex++ ) );
+        indexingCheckpoint.setTargetIndex( daoUtil.getString( nIndex++ ) );
+        indexingCheckpoint.setLastIdResource( daoUtil.getString( nIndex++ ) );
+        indexingCheckpoint.setNbIndexed( daoUtil.getInt( nIndex++ ) );
+        indexingCheckpoint.setDateUpdate( daoUtil.getTimestamp( nIndex ) );
+
+        return indexingCheckpoint;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import fr.paris.lutece.portal.service.plugin.Plugin;
+import fr.paris.lutece.portal.service.plugin.PluginService;
+import jakarta.enterprise.inject.spi.CDI;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This class provides instances management methods (create, find, ...) for IndexingCheckpoint objects
+ */
+public final class IndexingCheckpointHome
+{
+    // Static variable pointed at the DAO instance
+    private static IIndexingCheckpointDAO _dao = CDI.current( ).select( IIndexingCheckpointDAO.class ).get( );
+    private static Plugin _plugin = PluginService.getPlugin( "elasticdata" );
+
+    /**
+     * Private constructor - this class need not be instantiated
+     */
+    private IndexingCheckpointHome( )
+    {
+    }
+
+    /**
+     * Create an instance of the indexingCheckpoint class
+     * 
+     * @param indexingCheckpoint
+     *            The instance of the IndexingCheckpoint which contains the informations to store
+     * @return The instance of indexingCheckpoint which has been created
+     */
+    public static IndexingCheckpoint create( IndexingCheckpoint indexingCheckpoint )
+    {
+        _dao.insert( indexingCheckpoint, _plugin );
+
+        return indexingCheckpoint;
+    }
+
+    /**
+     * Update of the indexingCheckpoint which is specified in parameter
+     * 
+     * @param indexingCheckpoint
+     *            The instance of the IndexingCheckpoint which contains the data to store
+     * @return The instance of the indexingCheckpoint which has been updated
+     */
+    public static IndexingCheckpoint update( IndexingCheckpoint indexingCheckpoint )
+    {
+        _dao.store( indexingCheckpoint, _plugin );
+
+        return indexingCheckpoint;
+    }
+
+    /**
+     * Remove the indexingCheckpoint of a data source
+     * 
+     * @param strIdDataSource
+     *            The id of the data source
+     */
+    public static void remove( String strIdDataSource )
+    {
+        _dao.delete( strIdDataSource, _plugin );
+    }
+
+    /**
+     * Returns the indexingCheckpoint of a data source
+     * 
+     * @param strIdDataSource
+     *            The id of the data source
+     * @return an instance of IndexingCheckpoint
+     */
+    public static Optional<IndexingCheckpoint> findByIdDataSource( String strIdDataSource )
+    {
+        return _dao.load( strIdDataSource, _plugin );
+    }
+
+    /**
+     * Load the data of all the indexingCheckpoint objects and returns them as a list
+     * 
+     * @return the list which contains the data of all the indexingCheckpoint objects
+     */
+    public static List<IndexingCheckpoint> getIndexingCheckpointsList( )
+    {
+        return _dao.selectIndexingCheckpointsList( _plugin );
+    }
+}
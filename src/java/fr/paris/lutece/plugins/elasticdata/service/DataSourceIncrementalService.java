@@ -33,29 +33,40 @@
  */
 package fr.paris.lutece.plugins.elasticdata.service;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
 import java.util.stream.Collectors;
-
-import org.json.JSONArray;
+import java.util.stream.Stream;
 
 import fr.paris.lutece.plugins.elasticdata.business.DataObject;
 import fr.paris.lutece.plugins.elasticdata.business.DataSource;
 import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
 import fr.paris.lutece.plugins.elasticdata.business.IndexerActionHome;
-import fr.paris.lutece.plugins.libraryelastic.business.bulk.BulkRequest;
-import fr.paris.lutece.plugins.libraryelastic.business.bulk.IndexSubRequest;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkIndexer;
+import fr.paris.lutece.plugins.elasticdata.service.event.IndexerActionAddedEvent;
 import fr.paris.lutece.plugins.libraryelastic.util.Elastic;
 import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
 import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
 import fr.paris.lutece.util.sql.TransactionManager;
-import jakarta.enterprise.concurrent.ManagedThreadFactory;
 import jakarta.enterprise.inject.spi.CDI;
 
 public final class DataSourceIncrementalService
 {
-	private static ManagedThreadFactory _threadFactory = CDI.current( ).select( ManagedThreadFactory.class ).get( );
+    private static final String PROPERTY_LEASE_DURATION = "elasticdata.indexer_action_lease_duration";
+    private static final int LEASE_DURATION = AppPropertiesService.getPropertyInt( PROPERTY_LEASE_DURATION, 300 );
+    private static final String PROPERTY_CLAIM_SKIP_LOCKED = "elasticdata.indexer_action_claim_skip_locked";
+    private static final boolean CLAIM_SKIP_LOCKED = AppPropertiesService.getPropertyBoolean( PROPERTY_CLAIM_SKIP_LOCKED, false );
+
+	private static ThreadFactory _threadFactory = IndexingExecutors.getThreadFactory( );
 
     private DataSourceIncrementalService( )
     {
@@ -69,23 +80,18 @@ public final class DataSourceIncrementalService
      */
     public static String processIncrementalIndexing( )
     {
-        StringBuilder builder = new StringBuilder( );
-        for ( DataSource dataSource : DataSourceService.getDataSources( ) )
-        {
+        return DataSourcesIndexer.runIncremental( DataSourceService.getDataSources( ), dataSource -> {
             try
             {
                 processIncrementalIndexing( dataSource );
             }
             catch( ElasticClientException e )
             {
-
                 AppLogService.error( e.getMessage( ), e );
-                builder.append( e.getMessage( ) );
+                dataSource.getIndexingStatus( ).getSbLogs( ).append( e.getMessage( ) );
             }
-            builder.append( dataSource.getIndexingStatus( ).getSbLogs( ).toString( ) ).append( "\n" );
-
-        }
-        return builder.toString( );
+            return dataSource.getIndexingStatus( ).getSbLogs( ).toString( );
+        } );
     }
 
     /**
@@ -96,7 +102,7 @@ public final class DataSourceIncrementalService
      */
     public static void processAsynchronouslyIncrementalIndexing( DataSource dataSource )
     {
-        if ( dataSource.getIndexingStatus( ).getIsRunning( ).compareAndSet( false, true ) )
+        if ( dataSource.getIndexingStatus( ).getIsIncrementalRunning( ).compareAndSet( false, true ) )
         {
         	Thread thread = _threadFactory.newThread( ( ) -> 
             {
@@ -113,7 +119,7 @@ public final class DataSourceIncrementalService
                 }
                 finally
                 {
-                    dataSource.getIndexingStatus( ).getIsRunning( ).set( false );
+                    dataSource.getIndexingStatus( ).getIsIncrementalRunning( ).set( false );
                 }
             } );
         	thread.start( );
@@ -133,22 +139,275 @@ public final class DataSourceIncrementalService
      */
     public static void processIncrementalIndexing( DataSource dataSource ) throws ElasticClientException
     {
-        dataSource.getIndexingStatus( ).reset( );
-        int nCount = 0;
-        int [ ] taskList = {
-                IndexerAction.TASK_CREATE, IndexerAction.TASK_MODIFY, IndexerAction.TASK_DELETE
-        };
+        // The status of a full indexing running meanwhile is kept : the incremental run only appends its logs
+        boolean bFullRunning = dataSource.getIndexingStatus( ).getIsRunning( ).get( );
+        if ( !bFullRunning )
+        {
+            dataSource.getIndexingStatus( ).reset( );
+        }
         long timeBegin = System.currentTimeMillis( );
-        for ( int nTask : taskList )
+        int nCount = 0;
+        int nMaxActions = dataSource.getIncrementalMaxActions( );
+        // One keyset cursor per priority lane : the queue is drained page by page, each cursor moving past the actions rejected by Elasticsearch that are
+        // left to the next run, and past the actions leased by the other nodes
+        int [ ] lanesIdActionAfter = new int [ IndexerAction.PRIORITY_HIGH + 1 ];
+        boolean [ ] lanesDrained = new boolean [ IndexerAction.PRIORITY_HIGH + 1 ];
+        while ( nCount < nMaxActions )
         {
-            nCount += processIncrementalIndexing( dataSource, IndexerActionHome.getIdResourceIndexerActionsList( dataSource.getId( ), nTask ), nTask );
-
+            int nLimit = Math.min( dataSource.getBatchSize( ), nMaxActions - nCount );
+            String strLeaseOwner = UUID.randomUUID( ).toString( );
+            List<IndexerAction> listActions = claimActions( dataSource, lanesIdActionAfter, lanesDrained, nLimit, strLeaseOwner );
+            if ( listActions.isEmpty( ) )
+            {
+                break;
+            }
+            if ( !bFullRunning )
+            {
+                dataSource.getIndexingStatus( ).setnNbTotalObj( dataSource.getIndexingStatus( ).getNbTotalObj( ) + listActions.size( ) );
+            }
+            try
+            {
+                nCount += applyActions( dataSource, listActions, strLeaseOwner );
+            }
+            finally
+            {
+                // The actions that have not been acknowledged are available again for the next run
+                IndexerActionHome.release( strLeaseOwner );
+            }
+            if ( isDrained( lanesDrained ) )
+            {
+                break;
+            }
         }
         dataSource.getIndexingStatus( ).getSbLogs( ).append( "Number of documents processed by the incremental service from the Data Source '" )
                 .append( dataSource.getName( ) ).append( "' : " ).append( nCount );
         dataSource.getIndexingStatus( ).getSbLogs( ).append( " (duration : " ).append( System.currentTimeMillis( ) - timeBegin ).append( "ms)\n" );
     }
 
+    /**
+     * Apply the pending indexer actions of a data source in a single pass. The create, modify and delete actions are mixed in the same bulk requests, in
+     * the order of the queue. No transaction is open while the requests are sent : the acknowledged actions are removed by their ids in short transactions,
+     * if they are still leased, so that an action collapsed with a new task in the meantime is kept. While a full indexing loads a new generation of the
+     * index, the actions are applied to the generation first, then to the index served by the alias, and only the actions applied to both are acknowledged.
+     * 
+     * @param dataSource
+     *            the data source
+     * @param listActions
+     *            the claimed indexer actions, in the order of their ids
+     * @param strLeaseOwner
+     *            the owner of the lease of the claimed actions
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     * @return the number of documents posted
+     */
+    public static int applyActions( DataSource dataSource, List<IndexerAction> listActions, String strLeaseOwner ) throws ElasticClientException
+    {
+        Map<String, Integer> mapIdAction = new HashMap<>( );
+        for ( IndexerAction action : listActions )
+        {
+            mapIdAction.put( action.getIdResource( ), action.getId( ) );
+        }
+        int nCount;
+        try
+        {
+            Set<String> setGenerationApplied = applyToLoadingGeneration( dataSource, listActions );
+            try ( BulkIndexer indexer = new BulkIndexer( dataSource, dataSource.getTargetIndexName( ), DataSourceService.getRestClient( ), _threadFactory,
+                    result -> acknowledgeActions( result.getSucceededIdResources( ).stream( )
+                            .filter( strIdResource -> ( setGenerationApplied == null ) || setGenerationApplied.contains( strIdResource ) )
+                            .map( mapIdAction::get ).collect( Collectors.toList( ) ), strLeaseOwner ) ) )
+            {
+                nCount = indexer.apply( listActions );
+            }
+        }
+        catch( ElasticClientException e )
+        {
+            AppLogService.error( e.getMessage( ), e );
+            throw new ElasticClientException( "ElasticData incremental indexing error", e );
+        }
+        AppLogService.debug( "ElasticData incremental indexing : completed for {} actions of DataSource: {}", nCount, dataSource.getName( ) );
+        return nCount;
+    }
+
+    /**
+     * Apply the indexer actions to the generation of the index being loaded by a full indexing, if any, so that the changes made during the loading are
+     * not lost when the alias is moved to it. A document of the full indexing written after the change is rejected if the documents are versioned.
+     * 
+     * @param dataSource
+     *            the data source
+     * @param listActions
+     *            the claimed indexer actions, in the order of their ids
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     * @return the ids of the resources applied to the generation, or null if no generation is being loaded
+     */
+    private static Set<String> applyToLoadingGeneration( DataSource dataSource, List<IndexerAction> listActions ) throws ElasticClientException
+    {
+        String strGenerationIndex = IndexGeneration.getLoadingIndexName( dataSource );
+        if ( strGenerationIndex == null )
+        {
+            return null;
+        }
+        Set<String> setApplied = ConcurrentHashMap.newKeySet( );
+        try ( BulkIndexer indexer = new BulkIndexer( dataSource, strGenerationIndex, DataSourceService.getRestClient( ), _threadFactory,
+                result -> setApplied.addAll( result.getSucceededIdResources( ) ) ) )
+        {
+            indexer.apply( listActions );
+        }
+        return setApplied;
+    }
+
+    /**
+     * Claim a page of the pending indexer actions of a data source in a short transaction. The claimed actions are leased, so that the nodes sharing the
+     * database drain disjoint slices of the queue, and an expired lease makes its actions available to the other nodes again. The page is shared between
+     * the lanes that are not drained in proportion of their weights, each of them getting at least one action so that the lower priorities are never
+     * starved. The lanes are claimed from the highest priority, the part of the page left by a drained lane going to the lower ones.
+     * 
+     * @param dataSource
+     *            the data source
+     * @param lanesIdActionAfter
+     *            the id of the last action claimed in each priority lane, or 0 for the first page. Updated with the claimed actions.
+     * @param lanesDrained
+     *            the priority lanes that have no more actions to claim. Updated with the lanes drained by this page.
+     * @param nLimit
+     *            the maximum number of actions of the page
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @return the claimed indexer actions, from the highest priority and in the order of their ids
+     */
+    private static List<IndexerAction> claimActions( DataSource dataSource, int [ ] lanesIdActionAfter, boolean [ ] lanesDrained, int nLimit,
+            String strLeaseOwner )
+    {
+        Timestamp now = new Timestamp( System.currentTimeMillis( ) );
+        Timestamp leaseExpiry = new Timestamp( now.getTime( ) + LEASE_DURATION * 1000L );
+        int nWeights = 0;
+        for ( int nPriority = IndexerAction.PRIORITY_LOW; nPriority <= IndexerAction.PRIORITY_HIGH; nPriority++ )
+        {
+            if ( !lanesDrained [nPriority] )
+            {
+                nWeights += Math.max( 1, dataSource.getPriorityWeight( nPriority ) );
+            }
+        }
+        TransactionManager.beginTransaction( DataSourceUtils.getPlugin( ) );
+        try
+        {
+            List<IndexerAction> listActions = new ArrayList<>( );
+            int nRemaining = nLimit;
+            for ( int nPriority = IndexerAction.PRIORITY_HIGH; nPriority >= IndexerAction.PRIORITY_LOW && nRemaining > 0; nPriority-- )
+            {
+                if ( lanesDrained [nPriority] )
+                {
+                    continue;
+                }
+                int nWeight = Math.max( 1, dataSource.getPriorityWeight( nPriority ) );
+                int nQuota = Math.max( 1, (int) ( (long) nRemaining * nWeight / nWeights ) );
+                nWeights -= nWeight;
+                List<IndexerAction> listLaneActions = claimLaneActions( dataSource, nPriority, lanesIdActionAfter, lanesDrained, nQuota, strLeaseOwner,
+                        leaseExpiry, now );
+                listActions.addAll( listLaneActions );
+                nRemaining -= listLaneActions.size( );
+            }
+            TransactionManager.commitTransaction( DataSourceUtils.getPlugin( ) );
+            return listActions;
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( DataSourceUtils.getPlugin( ) );
+            throw e;
+        }
+    }
+
+    /**
+     * Claim the actions of a priority lane, within the transaction of the page. The lane is drained when the select of its page returns less actions than
+     * the limit : the actions of the page leased by another node in the meantime don't drain it.
+     * 
+     * @param dataSource
+     *            the data source
+     * @param nPriority
+     *            the priority lane
+     * @param lanesIdActionAfter
+     *            the id of the last action claimed in each priority lane, or 0 for the first page. Updated with the selected actions.
+     * @param lanesDrained
+     *            the priority lanes that have no more actions to claim. Updated for the lane.
+     * @param nLimit
+     *            the maximum number of actions to claim
+     * @param strLeaseOwner
+     *            the owner of the lease
+     * @param leaseExpiry
+     *            the expiry of the lease
+     * @param now
+     *            the current time
+     * @return the claimed indexer actions of the lane, in the order of their ids
+     */
+    private static List<IndexerAction> claimLaneActions( DataSource dataSource, int nPriority, int [ ] lanesIdActionAfter, boolean [ ] lanesDrained,
+            int nLimit, String strLeaseOwner, Timestamp leaseExpiry, Timestamp now )
+    {
+        if ( CLAIM_SKIP_LOCKED )
+        {
+            List<IndexerAction> listActions = IndexerActionHome.getClaimableIndexerActionsPage( dataSource.getId( ), nPriority,
+                    lanesIdActionAfter [nPriority], nLimit, now );
+            IndexerActionHome.lease( listActions.stream( ).map( IndexerAction::getId ).collect( Collectors.toList( ) ), strLeaseOwner, leaseExpiry );
+            if ( !listActions.isEmpty( ) )
+            {
+                lanesIdActionAfter [nPriority] = listActions.get( listActions.size( ) - 1 ).getId( );
+            }
+            lanesDrained [nPriority] = listActions.size( ) < nLimit;
+            return listActions;
+        }
+        int nIdActionAfter = lanesIdActionAfter [nPriority];
+        int nSelected = IndexerActionHome.leaseClaimablePage( dataSource.getId( ), nPriority, nIdActionAfter, nLimit, strLeaseOwner, leaseExpiry, now );
+        // The lease is shared by the lanes and the pages
+        List<IndexerAction> listActions = IndexerActionHome.getLeasedIndexerActions( strLeaseOwner ).stream( )
+                .filter( action -> action.getPriority( ) == nPriority && action.getId( ) > nIdActionAfter ).collect( Collectors.toList( ) );
+        if ( !listActions.isEmpty( ) )
+        {
+            lanesIdActionAfter [nPriority] = listActions.get( listActions.size( ) - 1 ).getId( );
+        }
+        lanesDrained [nPriority] = nSelected < nLimit;
+        return listActions;
+    }
+
+    /**
+     * Tells if all the priority lanes are drained
+     * 
+     * @param lanesDrained
+     *            the drained state of the lanes
+     * @return true if there is no more action to claim
+     */
+    private static boolean isDrained( boolean [ ] lanesDrained )
+    {
+        for ( boolean bDrained : lanesDrained )
+        {
+            if ( !bDrained )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove the acknowledged indexer actions that are still leased in a short transaction
+     * 
+     * @param listIdAction
+     *            the ids of the acknowledged indexer actions
+     * @param strLeaseOwner
+     *            the owner of the lease of the actions
+     */
+    private static void acknowledgeActions( List<Integer> listIdAction, String strLeaseOwner )
+    {
+        TransactionManager.beginTransaction( DataSourceUtils.getPlugin( ) );
+        try
+        {
+            IndexerActionHome.removeLeasedByIdList( listIdAction, strLeaseOwner );
+            TransactionManager.commitTransaction( DataSourceUtils.getPlugin( ) );
+        }
+        catch( RuntimeException e )
+        {
+            TransactionManager.rollBack( DataSourceUtils.getPlugin( ) );
+            throw e;
+        }
+    }
+
     /**
      * Process incremental indexing of a data source according to the task
      * 
@@ -180,7 +439,7 @@ public final class DataSourceIncrementalService
                     nCount += updateObjects( elastic, dataSource, dataSource.getDataObjectsIterator( listIdResource ) );
                     break;
                 case IndexerAction.TASK_DELETE:
-                    nCount += deleteByQuery( dataSource, listIdResource );
+                    nCount += deleteObjects( dataSource, listIdResource );
                     break;
                 default:// do nothing
             }
@@ -189,10 +448,10 @@ public final class DataSourceIncrementalService
     }
 
     /**
-     * Insert a list of object in bulk mode
+     * Insert a list of object in bulk mode. The bulk requests are closed when they reach either the batch size or the byte budget of the data source.
      * 
      * @param elastic
-     *            The Elastic Server
+     *            The Elastic Server (not used, the bulk requests are posted through the REST client)
      * @param dataSource
      *            The data source
      * @param iterateDataObjects
@@ -203,49 +462,18 @@ public final class DataSourceIncrementalService
      */
     public static int insertObjects( Elastic elastic, DataSource dataSource, Iterator<DataObject> iterateDataObjects ) throws ElasticClientException
     {
-        List<DataObject> listBatch = new ArrayList<>( );
-        int nCount = 0;
-        BulkRequest br;
-        List<String> listIdResource = new ArrayList<>( );
-        while ( iterateDataObjects.hasNext( ) )
+        int nCount;
+        // The bulk requests are sent by the dispatcher threads, the indexer actions are removed in order by this thread once acknowledged.
+        // The actions of the rejected documents are kept for the next run.
+        try ( BulkIndexer indexer = new BulkIndexer( dataSource, dataSource.getTargetIndexName( ), DataSourceService.getRestClient( ), _threadFactory,
+                result -> IndexerActionHome.removeByIdResourceList( result.getSucceededIdResources( ), dataSource.getId( ) ) ) )
         {
-            DataObject dataObject = iterateDataObjects.next( );
-            listIdResource.add( dataObject.getId( ) );
-            listBatch.add( dataObject );
-            nCount++;
-            if ( ( listBatch.size( ) == dataSource.getBatchSize( ) ) || !iterateDataObjects.hasNext( ) )
-            {
-                DataSourceService.completeDataObjectWithFullData( dataSource, listBatch );
-                br = new BulkRequest( );
-                for ( DataObject batchObject : listBatch )
-                {
-                    br.addAction( new IndexSubRequest( batchObject.getId( ) ), batchObject );
-                }
-                if ( elastic == null )
-                {
-                    elastic = DataSourceService.getElastic( );
-                }
-
-                try
-                {
-                    TransactionManager.beginTransaction( DataSourceUtils.getPlugin( ) );
-                    String strResponse = elastic.createByBulk( dataSource.getTargetIndexName( ), br );
-                    AppLogService.debug( "ElasticData : Response of the posted bulk request : {}", strResponse );
-
-                    IndexerActionHome.removeByIdResourceList( listIdResource, dataSource.getId( ) );
-                    listIdResource.clear( );
-                    listBatch.clear( );
-
-                    TransactionManager.commitTransaction( DataSourceUtils.getPlugin( ) );
-                }
-                catch( ElasticClientException e )
-                {
-                    TransactionManager.rollBack( DataSourceUtils.getPlugin( ) );
-                    AppLogService.error( e.getMessage( ), e );
-                    throw new ElasticClientException( "ElasticData createByBulk error", e );
-                }
-            }
-            DataSourceService.updateIndexingStatus( dataSource, nCount );
+            nCount = indexer.insert( iterateDataObjects );
+        }
+        catch( ElasticClientException e )
+        {
+            AppLogService.error( e.getMessage( ), e );
+            throw new ElasticClientException( "ElasticData createByBulk error", e );
         }
         AppLogService.debug( "ElasticData indexing : completed for {} documents of DataSource: {}", nCount, dataSource.getName( ) );
 
@@ -253,10 +481,11 @@ public final class DataSourceIncrementalService
     }
 
     /**
-     * update a list of object
+     * Update a list of object in bulk mode, with the same batches as {@link #insertObjects(Elastic, DataSource, Iterator)}. The documents missing from the
+     * index are created from the partial source instead of failing the request.
      * 
      * @param elastic
-     *            The Elastic Server
+     *            The Elastic Server (not used, the bulk requests are posted through the REST client)
      * @param dataSource
      *            The data source
      * @param iterateDataObjects
@@ -267,49 +496,24 @@ public final class DataSourceIncrementalService
      */
     public static int updateObjects( Elastic elastic, DataSource dataSource, Iterator<DataObject> iterateDataObjects ) throws ElasticClientException
     {
-        List<DataObject> listBatch = new ArrayList<>( );
-        List<String> listIdResource = new ArrayList<>( );
-        int nCount = 0;
-        if ( elastic == null )
+        int nCount;
+        try ( BulkIndexer indexer = new BulkIndexer( dataSource, dataSource.getTargetIndexName( ), DataSourceService.getRestClient( ), _threadFactory,
+                result -> IndexerActionHome.removeByIdResourceList( result.getSucceededIdResources( ), dataSource.getId( ) ) ) )
         {
-            elastic = DataSourceService.getElastic( );
+            nCount = indexer.update( iterateDataObjects );
         }
-
-        while ( iterateDataObjects.hasNext( ) )
+        catch( ElasticClientException e )
         {
-            listBatch.add( iterateDataObjects.next( ) );
-            if ( ( listBatch.size( ) == dataSource.getBatchSize( ) ) || !iterateDataObjects.hasNext( ) )
-            {
-                DataSourceService.completeDataObjectWithFullData( dataSource, listBatch );
-
-                try
-                {
-                    TransactionManager.beginTransaction( DataSourceUtils.getPlugin( ) );
-                    for ( DataObject batchObject : listBatch )
-                    {
-                        String strResponse = elastic.partialUpdate( dataSource.getTargetIndexName( ), batchObject.getId( ), batchObject );
-                        AppLogService.debug( "ElasticData : Response of the partial update : {}", strResponse );
-                        nCount++;
-                    }
-                    IndexerActionHome.removeByIdResourceList( listIdResource, dataSource.getId( ) );
-                    listBatch.clear( );
-                    TransactionManager.commitTransaction( DataSourceUtils.getPlugin( ) );
-                }
-                catch( ElasticClientException e )
-                {
-                    TransactionManager.rollBack( DataSourceUtils.getPlugin( ) );
-                    AppLogService.error( e.getMessage( ), e );
-                    throw new ElasticClientException( "ElasticData partialUpdate error", e );
-                }
-            }
-            DataSourceService.updateIndexingStatus( dataSource, nCount );
+            AppLogService.error( e.getMessage( ), e );
+            throw new ElasticClientException( "ElasticData partialUpdate error", e );
         }
         AppLogService.info( "ElasticData partial update indexing : completed for {} documents of DataSource '{}'", nCount, dataSource.getName( ) );
         return nCount;
     }
 
     /**
-     * Delete a documents by Query
+     * Delete the documents of a list of resources in bulk mode, by requests bounded by the batch size and the byte budget of the data source. A document
+     * already missing from the index counts as deleted.
      * 
      * @param dataSource
      *            The data source
@@ -317,32 +521,28 @@ public final class DataSourceIncrementalService
      *            The list of resource identifiers
      * @throws ElasticClientException
      *             Exception If an error occurs accessing to ElasticSearch
+     * @return the number of documents posted
      */
-    public static int deleteByQuery( DataSource dataSource, List<String> listIdResource ) throws ElasticClientException
+    public static int deleteObjects( DataSource dataSource, List<String> listIdResource ) throws ElasticClientException
     {
-        try
+        int nCount;
+        // Only the actions of the acknowledged deletions are removed, the others are kept for the next run
+        try ( BulkIndexer indexer = new BulkIndexer( dataSource, dataSource.getTargetIndexName( ), DataSourceService.getRestClient( ), _threadFactory,
+                result -> IndexerActionHome.removeByIdResourceList( result.getSucceededIdResources( ), dataSource.getId( ) ) ) )
         {
-            TransactionManager.beginTransaction( DataSourceUtils.getPlugin( ) );
-            Elastic elastic = DataSourceService.getElastic( );
-            List<String> idDocumentList = listIdResource.stream( ).map( idDataObject -> DataSourceService.getIdDocument( dataSource.getId( ), idDataObject ) )
-                    .collect( Collectors.toList( ) );
-            elastic.deleteByQuery( dataSource.getTargetIndexName( ), "{\"query\" : { \"terms\" : {\"_id\" : " + new JSONArray( idDocumentList ) + "}}}" );
-            IndexerActionHome.removeByIdResourceList( listIdResource, dataSource.getId( ) );
-            TransactionManager.commitTransaction( DataSourceUtils.getPlugin( ) );
-            int nSize = idDocumentList.size( );
-            DataSourceService.updateIndexingStatus( dataSource, nSize );
-            return nSize;
+            nCount = indexer.delete( listIdResource );
         }
         catch( ElasticClientException e )
         {
-            TransactionManager.rollBack( DataSourceUtils.getPlugin( ) );
             AppLogService.error( e.getMessage( ), e );
-            throw new ElasticClientException( "ElasticData createByBulk error", e );
+            throw new ElasticClientException( "ElasticData delete error", e );
         }
+        AppLogService.debug( "ElasticData deletion : completed for {} documents of DataSource: {}", nCount, dataSource.getName( ) );
+        return nCount;
     }
 
     /**
-     * Create incremental task
+     * Create incremental task, with the priority set for the task by the data source
      * 
      * @param strIdDataSource
      *            the datasource id
@@ -354,29 +554,68 @@ public final class DataSourceIncrementalService
      */
     public static void addTask( String strIdDataSource, String strIdResource, int nIdTask )
     {
+        DataSource dataSource = DataSourceService.getDataSource( strIdDataSource );
+        int nPriority = IndexerAction.PRIORITY_NORMAL;
+        if ( dataSource != null )
+        {
+            nPriority = dataSource.getTaskPriority( nIdTask );
+        }
+        else
+        {
+            // The task is kept : it is applied if the data source is deployed later, and visible in the admin view meanwhile
+            AppLogService.warn( "ElasticData : task {} of resource {} added for an unknown DataSource {}", nIdTask, strIdResource, strIdDataSource );
+        }
+        addTask( strIdDataSource, strIdResource, nIdTask, nPriority );
+    }
 
-        IndexerAction indexerAction = IndexerActionHome.findByIdResource( strIdResource, strIdDataSource );
-
-        if ( indexerAction != null )
+    /**
+     * Create incremental task. When the write-behind buffer is enabled, the task is collapsed in memory and written later. A task collapsed with a pending
+     * action keeps the highest of their priorities.
+     * 
+     * @param strIdDataSource
+     *            the datasource id
+     * @param strIdResource
+     *            the resource id
+     * @param nIdTask
+     *            the task id
+     * @param nPriority
+     *            the priority of the task, one of the IndexerAction priorities
+     */
+    public static void addTask( String strIdDataSource, String strIdResource, int nIdTask, int nPriority )
+    {
+        if ( IndexerActionBuffer.isEnabled( ) )
         {
-            if ( indexerAction.getIdTask( ) == IndexerAction.TASK_CREATE && nIdTask == IndexerAction.TASK_DELETE )
-            {
-                IndexerActionHome.remove( indexerAction.getId( ) );
-            }
-            else
-                if ( indexerAction.getIdTask( ) == IndexerAction.TASK_MODIFY && nIdTask == IndexerAction.TASK_DELETE )
-                {
-                    indexerAction.setIdTask( nIdTask );
-                    IndexerActionHome.update( indexerAction );
-                }
+            CDI.current( ).select( IndexerActionBuffer.class ).get( ).add( strIdDataSource, strIdResource, nIdTask, nPriority );
             return;
         }
 
-        indexerAction = new IndexerAction( );
+        IndexerAction indexerAction = new IndexerAction( );
         indexerAction.setIdDataSource( strIdDataSource );
         indexerAction.setIdResource( strIdResource );
         indexerAction.setIdTask( nIdTask );
-        IndexerActionHome.create( indexerAction );
+        indexerAction.setPriority( nPriority );
+        IndexerActionHome.upsert( indexerAction );
+        if ( IncrementalIndexingTrigger.isEnabled( ) )
+        {
+            // The task may be added within the transaction of the caller : the trigger is signaled after its commit
+            CDI.current( ).getBeanManager( ).getEvent( ).fire( new IndexerActionAddedEvent( strIdDataSource ) );
+        }
+    }
+
+    /**
+     * Collapse a new task with the task already pending for a resource : a deletion replaces the pending task, which is kept otherwise. This is the rule
+     * applied by the upsert of the indexer actions. A creation followed by a deletion is thus kept as a deletion rather than dropped : the deletion of a
+     * document that has never been indexed is a no-op, its not found status being ignored by the bulk response.
+     * 
+     * @param nIdTaskPending
+     *            the pending task id
+     * @param nIdTask
+     *            the new task id
+     * @return the collapsed task id
+     */
+    public static int collapseTasks( int nIdTaskPending, int nIdTask )
+    {
+        return ( nIdTask == IndexerAction.TASK_DELETE ) ? nIdTask : nIdTaskPending;
     }
 
     /**
@@ -390,4 +629,17 @@ public final class DataSourceIncrementalService
         return IndexerActionHome.getIndexerActionsList( strIdDataSource );
     }
 
+    /**
+     * Stream the datasource indexerAction objects in the order of their ids. The actions are read by pages of the fetch size, so that the memory used
+     * doesn't depend on the size of the queue.
+     * 
+     * @param strIdDataSource
+     *            the identifier of data source
+     * @return The stream of the indexerAction objects
+     */
+    public static Stream<IndexerAction> streamIndexerActions( String strIdDataSource )
+    {
+        return IndexerActionHome.streamIndexerActions( strIdDataSource );
+    }
+
 }
@@ -35,22 +35,34 @@ package fr.paris.lutece.plugins.elasticdata.service;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.ThreadFactory;
 import org.apache.commons.lang3.StringUtils;
+import fr.paris.lutece.plugins.elasticdata.business.BatchDataObjectsIterator;
 import fr.paris.lutece.plugins.elasticdata.business.DataObject;
 import fr.paris.lutece.plugins.elasticdata.business.DataSource;
 import fr.paris.lutece.plugins.elasticdata.business.IDataSourceExternalAttributesProvider;
+import fr.paris.lutece.plugins.elasticdata.business.IndexingCheckpoint;
+import fr.paris.lutece.plugins.elasticdata.business.IndexingCheckpointHome;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.AsyncBulkIndexer;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkIndexer;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
 import fr.paris.lutece.plugins.elasticdata.service.event.DataSourceIndexedEvent;
-import fr.paris.lutece.plugins.libraryelastic.business.bulk.BulkRequest;
-import fr.paris.lutece.plugins.libraryelastic.business.bulk.IndexSubRequest;
 import fr.paris.lutece.plugins.libraryelastic.util.Elastic;
 import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
 import fr.paris.lutece.portal.service.util.AppLogService;
 import fr.paris.lutece.portal.service.util.AppPropertiesService;
-import jakarta.enterprise.concurrent.ManagedThreadFactory;
 import jakarta.enterprise.inject.spi.CDI;
 
 /**
@@ -61,15 +73,22 @@ public final class DataSourceService
     private static final String PROPERTY_ELASTIC_SERVER_LOGIN = "elasticdata.elastic_server.login";
     private static final String PROPERTY_ELASTIC_SERVER_PWD = "elasticdata.elastic_server.pwd";
     private static final String PROPERTY_ELASTIC_SERVER_URL = "elasticdata.elastic_server.url";
+    private static final String PROPERTY_ELASTIC_SERVER_CONNECT_TIMEOUT = "elasticdata.elastic_server.connect_timeout";
+    private static final String PROPERTY_ELASTIC_SERVER_READ_TIMEOUT = "elasticdata.elastic_server.read_timeout";
 
     private static final String DEFAULT_ELASTIC_SERVER_URL = "httt://localhost:9200";
     private static final String SERVER_URL = AppPropertiesService.getProperty( PROPERTY_ELASTIC_SERVER_URL, DEFAULT_ELASTIC_SERVER_URL );
     private static final String SERVER_LOGIN = AppPropertiesService.getProperty( PROPERTY_ELASTIC_SERVER_LOGIN );
     private static final String SERVEUR_PWD = AppPropertiesService.getProperty( PROPERTY_ELASTIC_SERVER_PWD );
+    private static final int SERVER_CONNECT_TIMEOUT = AppPropertiesService.getPropertyInt( PROPERTY_ELASTIC_SERVER_CONNECT_TIMEOUT, 5000 );
+    private static final int SERVER_READ_TIMEOUT = AppPropertiesService.getPropertyInt( PROPERTY_ELASTIC_SERVER_READ_TIMEOUT, 60000 );
+
+    private static final ElasticRestClient _restClient = new ElasticRestClient( SERVER_URL, SERVER_LOGIN, SERVEUR_PWD, SERVER_CONNECT_TIMEOUT,
+            SERVER_READ_TIMEOUT );
 
     private static Map<String, DataSource> _mapDataSources;
     
-    private static ManagedThreadFactory _threadFactory = CDI.current( ).select( ManagedThreadFactory.class ).get( );
+    private static ThreadFactory _threadFactory = IndexingExecutors.getThreadFactory( );
 
     /** Package constructor */
     DataSourceService( )
@@ -98,14 +117,15 @@ public final class DataSourceService
     }
 
     /**
-     * Get a Data Source from its ID
+     * Get a Data Source from its ID. The data sources are loaded on the first call, that may come from a resource listener before any daemon has run.
      * 
      * @param strId
      *            The ID
-     * @return The Data Source
+     * @return The Data Source, or null if there is no data source with this ID
      */
     public static DataSource getDataSource( String strId )
     {
+        getDataSources( );
         return _mapDataSources.get( strId );
     }
 
@@ -122,7 +142,8 @@ public final class DataSourceService
     public static void processFullIndexing( DataSource dataSource, boolean bReset )
     {
     	// When running multiple instances, the only consequence is that data may be reindexed twice, but no data will be lost.
-    	// Elastic ensures concurrent write access and guarantees data uniqueness.
+    	// Elastic ensures concurrent write access and guarantees data uniqueness. With the external versioning of the data source, Elastic also rejects
+    	// the writes of a data older than the indexed one, so that overlapping runs can't leave stale documents.
         if ( dataSource.getIndexingStatus( ).getIsRunning( ).compareAndSet( false, true ) )
         {
         	Runnable task = ( ) -> process( dataSource, bReset );
@@ -131,6 +152,29 @@ public final class DataSourceService
         }
     }
 
+    /**
+     * Resume the interrupted full indexing of a data source from its last acknowledged bulk request
+     *
+     * @param dataSource
+     *            The data source
+     * @return false if the data source has no interrupted full indexing
+     */
+    public static boolean resumeFullIndexing( DataSource dataSource )
+    {
+        Optional<IndexingCheckpoint> checkpoint = IndexingCheckpointHome.findByIdDataSource( dataSource.getId( ) );
+        if ( !checkpoint.isPresent( ) )
+        {
+            return false;
+        }
+        if ( dataSource.getIndexingStatus( ).getIsRunning( ).compareAndSet( false, true ) )
+        {
+            Runnable task = ( ) -> process( dataSource, false, checkpoint.get( ) );
+            Thread thread = _threadFactory.newThread( task );
+            thread.start( );
+        }
+        return true;
+    }
+
     /**
      * Insert data from a DataSource into Elastic Search
      *
@@ -140,26 +184,97 @@ public final class DataSourceService
      *            if the index should be reset before inserting
      */
     private static void process( DataSource dataSource, boolean bReset )
+    {
+        process( dataSource, bReset, null );
+    }
+
+    /**
+     * Insert data from a DataSource into Elastic Search. A run through a single pipeline indexes the objects in the order of their ids and keeps a checkpoint
+     * updated after each acknowledged bulk request, removed once the run is complete. A partitioned run keeps no checkpoint : it can't be resumed.
+     *
+     * @param dataSource
+     *            The data source
+     * @param bReset
+     *            if the index should be reset before inserting
+     * @param checkpointResumed
+     *            the checkpoint of the interrupted run to resume, or null to start a new run
+     */
+    private static void process( DataSource dataSource, boolean bReset, IndexingCheckpoint checkpointResumed )
     {
         long timeBegin = System.currentTimeMillis( );
         dataSource.getIndexingStatus( ).reset( );
+        IndexGeneration generation = null;
+        IndexingCheckpoint checkpoint = checkpointResumed;
         try
         {
             Elastic elastic = getElastic( );
-            if ( bReset )
+            ElasticRestClient client = getRestClient( );
+            String strIndexName = dataSource.getTargetIndexName( );
+            if ( checkpoint != null )
             {
-                if ( elastic.isExists( dataSource.getTargetIndexName( ) ) )
+                // Go on filling the index of the interrupted run, without reset
+                strIndexName = checkpoint.getTargetIndex( );
+                if ( !strIndexName.equals( dataSource.getTargetIndexName( ) ) )
                 {
-                    elastic.deleteIndex( dataSource.getTargetIndexName( ) );
+                    generation = IndexGeneration.resume( dataSource, client, strIndexName );
                 }
-                elastic.createMappings( dataSource.getTargetIndexName( ), getMappings( dataSource ) );
+                dataSource.getIndexingStatus( ).getSbLogs( ).append( "Resuming the full indexing " ).append( checkpoint.getRunId( ) )
+                        .append( " of Data Source '" ).append( dataSource.getName( ) ).append( "' after " ).append( checkpoint.getNbIndexed( ) )
+                        .append( " documents\n" );
+            }
+            else
+            {
+                discardCheckpoint( dataSource, client );
+                if ( bReset && dataSource.usesIndexAliasSwap( ) )
+                {
+                    // Fill a new generation while the current one is still served through the alias
+                    generation = IndexGeneration.create( dataSource, elastic, client, getMappings( dataSource ) );
+                    strIndexName = generation.getIndexName( );
+                }
+                else
+                    if ( bReset )
+                    {
+                        if ( elastic.isExists( dataSource.getTargetIndexName( ) ) )
+                        {
+                            elastic.deleteIndex( dataSource.getTargetIndexName( ) );
+                        }
+                        elastic.createMappings( dataSource.getTargetIndexName( ), getMappings( dataSource ) );
+                    }
+            }
+            // Index the objects in bulk mode through the fetch / enrich / serialize / send pipeline
+            int nbDocsInsert;
+            if ( checkpoint != null )
+            {
+                nbDocsInsert = processFromCheckpoint( dataSource, strIndexName, client, checkpoint );
+            }
+            else
+                if ( dataSource.getIndexingPartitions( ) > 1 )
+                {
+                    nbDocsInsert = processPartitions( dataSource, strIndexName, client );
+                }
+                else
+                {
+                    // The objects are indexed in the order of their ids, so that an interrupted run is resumed after the last id of its checkpoint
+                    checkpoint = createCheckpoint( dataSource, strIndexName );
+                    long timeFetch = System.currentTimeMillis( );
+                    Iterator<DataObject> iterateDataObjects = dataSource.getDataObjectsIterator( getSortedIdDataObjects( dataSource ) );
+                    dataSource.getIndexingStatus( ).addFetchDuration( System.currentTimeMillis( ) - timeFetch );
+                    IndexingPipeline pipeline = new IndexingPipeline( dataSource, strIndexName, client, _threadFactory );
+                    pipeline.setCheckpoint( checkpoint );
+                    nbDocsInsert = pipeline.run( iterateDataObjects );
+                }
+            if ( generation != null )
+            {
+                generation.publish( elastic, dataSource.getIndexGenerationsKept( ) );
+                generation = null;
             }
-            // Index the objects in bulk mode
-            int nbDocsInsert = DataSourceIncrementalService.insertObjects( elastic, dataSource, dataSource.getDataObjectsIterator( ) );
+            IndexingCheckpointHome.remove( dataSource.getId( ) );
+            checkpoint = null;
             long timeEnd = System.currentTimeMillis( );
             dataSource.getIndexingStatus( ).getSbLogs( ).append( "Number of object inserted for Data Source '" ).append( dataSource.getName( ) )
                     .append( "' : " ).append( nbDocsInsert );
             dataSource.getIndexingStatus( ).getSbLogs( ).append( " (duration : " ).append( timeEnd - timeBegin ).append( "ms)\n" );
+            appendStagesDurations( dataSource );
 
             CDI.current( ).getBeanManager( ).getEvent( ).fireAsync( new DataSourceIndexedEvent( dataSource.getId( ) ) );
         }
@@ -167,6 +282,17 @@ public final class DataSourceService
         {
             dataSource.getIndexingStatus( ).getSbLogs( ).append( e.getMessage( ) ).append( e );
             AppLogService.error( "Process full indexing: ", e );
+            if ( checkpoint != null )
+            {
+                // The generation is kept to be resumed, the alias still points to the previous one
+                dataSource.getIndexingStatus( ).getSbLogs( ).append( "\nThe full indexing can be resumed" );
+            }
+            else
+                if ( generation != null )
+                {
+                    // The alias still points to the previous generation
+                    generation.discard( );
+                }
         }
         finally
         {
@@ -175,6 +301,165 @@ public final class DataSourceService
 
     }
 
+    /**
+     * Index the objects of a data source that follow the last resource acknowledged by an interrupted run. The objects are loaded through
+     * getIdDataObjects and getDataObjects, in the order of the ids list.
+     * 
+     * @param dataSource
+     *            The data source
+     * @param strIndexName
+     *            the name of the index to fill
+     * @param client
+     *            the Elasticsearch client
+     * @param checkpoint
+     *            the checkpoint of the interrupted run
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If the pipeline has failed
+     */
+    private static int processFromCheckpoint( DataSource dataSource, String strIndexName, ElasticRestClient client, IndexingCheckpoint checkpoint )
+            throws ElasticClientException
+    {
+        long timeFetch = System.currentTimeMillis( );
+        List<String> listIdDataObjects = getSortedIdDataObjects( dataSource );
+        dataSource.getIndexingStatus( ).addFetchDuration( System.currentTimeMillis( ) - timeFetch );
+        int nStart = 0;
+        if ( checkpoint.getLastIdResource( ) != null )
+        {
+            // Keyset on the sorted ids : the run goes on after the last id, even if its resource has been removed meanwhile
+            int nPosition = Collections.binarySearch( listIdDataObjects, checkpoint.getLastIdResource( ) );
+            nStart = ( nPosition >= 0 ) ? ( nPosition + 1 ) : ( -nPosition - 1 );
+        }
+        dataSource.getIndexingStatus( ).setnNbTotalObj( listIdDataObjects.size( ) );
+        int nCountBefore = checkpoint.getNbIndexed( );
+        AtomicInteger nCountIndexed = new AtomicInteger( nCountBefore );
+        updateIndexingStatus( dataSource, nCountBefore );
+
+        IndexingPipeline pipeline = new IndexingPipeline( dataSource, strIndexName, client, _threadFactory, nCountIndexed );
+        pipeline.setCheckpoint( checkpoint );
+        List<String> listIdRemaining = listIdDataObjects.subList( nStart, listIdDataObjects.size( ) );
+        return nCountBefore + pipeline.run( new BatchDataObjectsIterator( dataSource, listIdRemaining ) );
+    }
+
+    /**
+     * Returns the ids of the objects of a data source in their natural order, the order of a checkpointed run
+     * 
+     * @param dataSource
+     *            The data source
+     * @return the sorted ids
+     */
+    private static List<String> getSortedIdDataObjects( DataSource dataSource )
+    {
+        List<String> listIdDataObjects = new ArrayList<>( dataSource.getIdDataObjects( ) );
+        Collections.sort( listIdDataObjects );
+        return listIdDataObjects;
+    }
+
+    /**
+     * Start the checkpoint of a new full indexing run
+     * 
+     * @param dataSource
+     *            The data source
+     * @param strIndexName
+     *            the name of the index filled by the run
+     * @return the checkpoint
+     */
+    private static IndexingCheckpoint createCheckpoint( DataSource dataSource, String strIndexName )
+    {
+        IndexingCheckpoint checkpoint = new IndexingCheckpoint( );
+        checkpoint.setIdDataSource( dataSource.getId( ) );
+        checkpoint.setRunId( UUID.randomUUID( ).toString( ) );
+        checkpoint.setTargetIndex( strIndexName );
+        return IndexingCheckpointHome.create( checkpoint );
+    }
+
+    /**
+     * Drop the checkpoint of an interrupted run replaced by a new run, with the index generation it was filling
+     * 
+     * @param dataSource
+     *            The data source
+     * @param client
+     *            the Elasticsearch client
+     */
+    private static void discardCheckpoint( DataSource dataSource, ElasticRestClient client )
+    {
+        Optional<IndexingCheckpoint> checkpoint = IndexingCheckpointHome.findByIdDataSource( dataSource.getId( ) );
+        if ( checkpoint.isPresent( ) )
+        {
+            IndexingCheckpointHome.remove( dataSource.getId( ) );
+            if ( !checkpoint.get( ).getTargetIndex( ).equals( dataSource.getTargetIndexName( ) ) )
+            {
+                IndexGeneration.resume( dataSource, client, checkpoint.get( ).getTargetIndex( ) ).discard( );
+            }
+        }
+    }
+
+    /**
+     * Index the objects of a data source by partitions of its ids list, each partition being processed by its own pipeline
+     * 
+     * @param dataSource
+     *            The data source
+     * @param strIndexName
+     *            the name of the index to fill
+     * @param client
+     *            the Elasticsearch client
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a partition has failed
+     */
+    private static int processPartitions( DataSource dataSource, String strIndexName, ElasticRestClient client ) throws ElasticClientException
+    {
+        long timeFetch = System.currentTimeMillis( );
+        List<String> listIdDataObjects = dataSource.getIdDataObjects( );
+        dataSource.getIndexingStatus( ).addFetchDuration( System.currentTimeMillis( ) - timeFetch );
+        dataSource.getIndexingStatus( ).setnNbTotalObj( listIdDataObjects.size( ) );
+        if ( listIdDataObjects.isEmpty( ) )
+        {
+            return 0;
+        }
+
+        int nPartitions = Math.min( dataSource.getIndexingPartitions( ), listIdDataObjects.size( ) );
+        int nPartitionSize = ( listIdDataObjects.size( ) + nPartitions - 1 ) / nPartitions;
+        AtomicInteger nCountIndexed = new AtomicInteger( );
+        ExecutorService executor = IndexingExecutors.newExecutor( nPartitions );
+        List<Future<Integer>> listPartitions = new ArrayList<>( );
+        for ( int nFrom = 0; nFrom < listIdDataObjects.size( ); nFrom += nPartitionSize )
+        {
+            List<String> listPartition = listIdDataObjects.subList( nFrom, Math.min( nFrom + nPartitionSize, listIdDataObjects.size( ) ) );
+            listPartitions.add( executor.submit( ( ) -> new IndexingPipeline( dataSource, strIndexName, client, _threadFactory, nCountIndexed )
+                    .run( new BatchDataObjectsIterator( dataSource, listPartition ) ) ) );
+        }
+        executor.shutdown( );
+
+        int nCount = 0;
+        try
+        {
+            for ( Future<Integer> partition : listPartitions )
+            {
+                nCount += partition.get( );
+            }
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new ElasticClientException( "ElasticData partitioned indexing interrupted", e );
+        }
+        catch( ExecutionException e )
+        {
+            if ( e.getCause( ) instanceof ElasticClientException )
+            {
+                throw (ElasticClientException) e.getCause( );
+            }
+            throw new ElasticClientException( "ElasticData partitioned indexing error", e );
+        }
+        finally
+        {
+            // Stop the other partitions once one of them has failed, and wait for them before the data source is released
+            IndexingExecutors.shutdownAndAwait( executor );
+        }
+        return nCount;
+    }
+
     /**
      * Insert one dataObject from a DataSource into Elastic Search
      * 
@@ -194,6 +479,21 @@ public final class DataSourceService
 
     }
 
+    /**
+     * Insert one dataObject from a DataSource into Elastic Search asynchronously. The objects submitted by all the threads are sent in bulk by micro-batches.
+     * 
+     * @param dataSource
+     *            The data source
+     * @param dataObject
+     *            The data object
+     * @return the future completed once the document has been acknowledged or handed over to the incremental indexing queue, or completed exceptionally
+     *         if it has been rejected
+     */
+    public static CompletableFuture<Void> processIncrementalIndexingAsync( DataSource dataSource, DataObject dataObject )
+    {
+        return AsyncBulkIndexer.index( dataSource, dataObject );
+    }
+
     /**
      * Insert a dataObject from a DataSource into Elastic Search
      * 
@@ -293,16 +593,20 @@ public final class DataSourceService
      */
     public static String insertDataAllDatasources( boolean bReset, boolean bDaemon )
     {
-        StringBuilder builder = new StringBuilder( );
+        List<DataSource> listDataSources = new ArrayList<>( );
         for ( DataSource dataSource : getDataSources( ) )
         {
             if ( ( dataSource.usesFullIndexingDaemon( ) || !bDaemon ) )
             {
-                process( dataSource, bReset );
-                builder.append( dataSource.getIndexingStatus( ).getSbLogs( ).toString( ) ).append( "\n" );
+                listDataSources.add( dataSource );
             }
         }
-        return builder.toString( );
+        return DataSourcesIndexer.run( listDataSources, dataSource -> {
+            // A run interrupted by a restart of the daemon is resumed
+            IndexingCheckpoint checkpoint = bDaemon ? IndexingCheckpointHome.findByIdDataSource( dataSource.getId( ) ).orElse( null ) : null;
+            process( dataSource, bReset, checkpoint );
+            return dataSource.getIndexingStatus( ).getSbLogs( ).toString( );
+        } );
     }
 
     /**
@@ -322,6 +626,39 @@ public final class DataSourceService
         return elastic;
     }
 
+    /**
+     * Return a REST client for the Elasticsearch calls not covered by the Elastic library, connected to the server of {@link #getElastic()} with the same
+     * credentials. The client holds no connection and is shared.
+     * 
+     * @return the client
+     */
+    public static ElasticRestClient getRestClient( )
+    {
+        return _restClient;
+    }
+
+    /**
+     * Append the time spent in each stage of the indexing to the logs of the data source
+     * 
+     * @param dataSource
+     *            The data source
+     */
+    private static void appendStagesDurations( DataSource dataSource )
+    {
+        IndexingStatus status = dataSource.getIndexingStatus( );
+        status.getSbLogs( ).append( "Stages durations - fetch : " ).append( status.getFetchDuration( ) ).append( "ms, enrich : " )
+                .append( status.getEnrichDuration( ) ).append( "ms, serialize : " ).append( status.getSerializeDuration( ) ).append( "ms, send : " )
+                .append( status.getSendDuration( ) ).append( "ms\n" );
+        if ( status.getNbFailedObj( ) > 0 )
+        {
+            status.getSbLogs( ).append( "Number of documents rejected : " ).append( status.getNbFailedObj( ) ).append( "\n" );
+            for ( String strFailure : status.getFailures( ) )
+            {
+                status.getSbLogs( ).append( strFailure ).append( "\n" );
+            }
+        }
+    }
+
     /**
      * Return the mappings associated to a data source
      * 
@@ -390,10 +727,10 @@ public final class DataSourceService
     }
 
     /**
-     * Insert a list of object in bulk mode
+     * Insert a list of object in bulk mode. The bulk requests are closed when they reach either the batch size or the byte budget of the data source.
      * 
      * @param elastic
-     *            The Elastic Server
+     *            The Elastic Server (not used, the bulk requests are posted through the REST client)
      * @param dataSource
      *            The data source
      * @param iterateDataObjects
@@ -404,31 +741,11 @@ public final class DataSourceService
      */
     public static int insertObjects( Elastic elastic, DataSource dataSource, Iterator<DataObject> iterateDataObjects ) throws ElasticClientException
     {
-        List<DataObject> listBatch = new ArrayList<>( );
-        int nCount = 0;
-        BulkRequest br;
-        while ( iterateDataObjects.hasNext( ) )
+        int nCount;
+        try ( BulkIndexer indexer = new BulkIndexer( dataSource, dataSource.getTargetIndexName( ), getRestClient( ), _threadFactory, result -> {
+        } ) )
         {
-            DataObject dataObject = iterateDataObjects.next( );
-            listBatch.add( dataObject );
-            nCount++;
-            if ( ( listBatch.size( ) == dataSource.getBatchSize( ) ) || !iterateDataObjects.hasNext( ) )
-            {
-                completeDataObjectWithFullData( dataSource, listBatch );
-                br = new BulkRequest( );
-                for ( DataObject batchObject : listBatch )
-                {
-                    br.addAction( new IndexSubRequest( batchObject.getId( ) ), batchObject );
-                }
-                if ( elastic == null )
-                {
-                    elastic = getElastic( );
-                }
-                String strResponse = elastic.createByBulk( dataSource.getTargetIndexName( ), br );
-                AppLogService.debug( "ElasticData : Response of the posted bulk request : {}", strResponse );
-                listBatch.clear( );
-            }
-            updateIndexingStatus( dataSource, nCount );
+            nCount = indexer.insert( iterateDataObjects );
         }
         AppLogService.debug( "ElasticData indexing : completed for {} documents of DataSource: {}", nCount,  dataSource.getName( ) );
 
@@ -475,11 +792,15 @@ public final class DataSourceService
      */
     public static void updateIndexingStatus( DataSource dataSource, int nCount )
     {
-        if ( dataSource.getIndexingStatus( ).getNbTotalObj( ) < nCount )
+        IndexingStatus status = dataSource.getIndexingStatus( );
+        synchronized( status )
         {
-            dataSource.getIndexingStatus( ).setnNbTotalObj( nCount );
+            if ( status.getNbTotalObj( ) < nCount )
+            {
+                status.setnNbTotalObj( nCount );
+            }
+            status.setCurrentNbIndexedObj( nCount );
         }
-        dataSource.getIndexingStatus( ).setCurrentNbIndexedObj( nCount );
     }
 
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import fr.paris.lutece.plugins.elasticdata.business.DataSource;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Runs an indexing task on several data sources concurrently. The number of data sources indexed at the same time is bounded by a global limit, each data
+ * source taking as many slots of this limit as its indexing weight. A data source already being indexed is skipped : the full and the incremental indexing
+ * runs have their own guards, so that a data source can be indexed incrementally while it is fully indexed.
+ */
+public final class DataSourcesIndexer
+{
+    private static final String PROPERTY_MAX_PARALLEL_DATASOURCES = "elasticdata.max_parallel_datasources";
+    private static final int MAX_PARALLEL_DATASOURCES = AppPropertiesService.getPropertyInt( PROPERTY_MAX_PARALLEL_DATASOURCES, 1 );
+
+    /**
+     * Private constructor
+     */
+    private DataSourcesIndexer( )
+    {
+    }
+
+    /**
+     * Run a full indexing task on data sources and combine their logs once they have all finished
+     * 
+     * @param colDataSources
+     *            the data sources
+     * @param task
+     *            the indexing task
+     * @return the logs of the data sources, in the order of the collection
+     */
+    public static String run( Collection<DataSource> colDataSources, DataSourceTask task )
+    {
+        return run( colDataSources, task, false );
+    }
+
+    /**
+     * Run an incremental indexing task on data sources and combine their logs once they have all finished
+     * 
+     * @param colDataSources
+     *            the data sources
+     * @param task
+     *            the indexing task
+     * @return the logs of the data sources, in the order of the collection
+     */
+    public static String runIncremental( Collection<DataSource> colDataSources, DataSourceTask task )
+    {
+        return run( colDataSources, task, true );
+    }
+
+    /**
+     * Run a task on data sources and combine their logs once they have all finished
+     * 
+     * @param colDataSources
+     *            the data sources
+     * @param task
+     *            the indexing task
+     * @param bIncremental
+     *            true for an incremental indexing task
+     * @return the logs of the data sources, in the order of the collection
+     */
+    private static String run( Collection<DataSource> colDataSources, DataSourceTask task, boolean bIncremental )
+    {
+        Map<DataSource, String> mapLogs = new LinkedHashMap<>( );
+        int nLimit = Math.max( 1, MAX_PARALLEL_DATASOURCES );
+        if ( nLimit == 1 || colDataSources.size( ) <= 1 )
+        {
+            for ( DataSource dataSource : colDataSources )
+            {
+                mapLogs.put( dataSource, runGuarded( dataSource, task, bIncremental ) );
+            }
+        }
+        else
+        {
+            Semaphore slots = new Semaphore( nLimit, true );
+            ExecutorService executor = IndexingExecutors.newExecutor( Math.min( nLimit, colDataSources.size( ) ) );
+            Map<DataSource, Future<String>> mapFutures = new LinkedHashMap<>( );
+            for ( DataSource dataSource : colDataSources )
+            {
+                mapFutures.put( dataSource, null );
+            }
+            // The heaviest data sources are started first
+            List<DataSource> listByWeight = new ArrayList<>( colDataSources );
+            listByWeight.sort( Comparator.comparingInt( DataSource::getIndexingWeight ).reversed( ) );
+            for ( DataSource dataSource : listByWeight )
+            {
+                int nSlots = Math.min( Math.max( 1, dataSource.getIndexingWeight( ) ), nLimit );
+                mapFutures.put( dataSource, executor.submit( ( ) -> runWithSlots( dataSource, task, bIncremental, slots, nSlots ) ) );
+            }
+            executor.shutdown( );
+            try
+            {
+                for ( Map.Entry<DataSource, Future<String>> entry : mapFutures.entrySet( ) )
+                {
+                    mapLogs.put( entry.getKey( ), getLogs( entry.getKey( ), entry.getValue( ) ) );
+                }
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+                // The tasks still waiting for their slots or running are cancelled
+                executor.shutdownNow( );
+                for ( Map.Entry<DataSource, Future<String>> entry : mapFutures.entrySet( ) )
+                {
+                    if ( !mapLogs.containsKey( entry.getKey( ) ) )
+                    {
+                        entry.getValue( ).cancel( true );
+                        mapLogs.put( entry.getKey( ), "Indexing of Data Source '" + entry.getKey( ).getName( ) + "' interrupted" );
+                    }
+                }
+            }
+        }
+        StringBuilder builder = new StringBuilder( );
+        for ( String strLogs : mapLogs.values( ) )
+        {
+            builder.append( strLogs ).append( "\n" );
+        }
+        return builder.toString( );
+    }
+
+    /**
+     * Run the task of a data source once the slots matching its weight are available
+     * 
+     * @param dataSource
+     *            the data source
+     * @param task
+     *            the indexing task
+     * @param bIncremental
+     *            true for an incremental indexing task
+     * @param slots
+     *            the slots of the global concurrency limit
+     * @param nSlots
+     *            the number of slots taken by the data source
+     * @return the logs of the data source
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting for its slots
+     */
+    private static String runWithSlots( DataSource dataSource, DataSourceTask task, boolean bIncremental, Semaphore slots, int nSlots )
+            throws InterruptedException
+    {
+        slots.acquire( nSlots );
+        try
+        {
+            return runGuarded( dataSource, task, bIncremental );
+        }
+        finally
+        {
+            slots.release( nSlots );
+        }
+    }
+
+    /**
+     * Run the task of a data source unless it is already being indexed the same way
+     * 
+     * @param dataSource
+     *            the data source
+     * @param task
+     *            the indexing task
+     * @param bIncremental
+     *            true for an incremental indexing task
+     * @return the logs of the data source
+     */
+    private static String runGuarded( DataSource dataSource, DataSourceTask task, boolean bIncremental )
+    {
+        AtomicBoolean bRunning = bIncremental ? dataSource.getIndexingStatus( ).getIsIncrementalRunning( ) : dataSource.getIndexingStatus( ).getIsRunning( );
+        if ( !bRunning.compareAndSet( false, true ) )
+        {
+            return "Data Source '" + dataSource.getName( ) + "' skipped : " + ( bIncremental ? "an incremental" : "an" ) + " indexing is already running";
+        }
+        try
+        {
+            return task.run( dataSource );
+        }
+        finally
+        {
+            bRunning.set( false );
+        }
+    }
+
+    /**
+     * Wait for the task of a data source
+     * 
+     * @param dataSource
+     *            the data source
+     * @param future
+     *            the task
+     * @return the logs of the data source
+     * @throws InterruptedException
+     *             if the thread is interrupted while waiting
+     */
+    private static String getLogs( DataSource dataSource, Future<String> future ) throws InterruptedException
+    {
+        try
+        {
+            return future.get( );
+        }
+        catch( ExecutionException e )
+        {
+            AppLogService.error( "Indexing of Data Source " + dataSource.getName( ) + " failed", e.getCause( ) );
+            return "Indexing of Data Source '" + dataSource.getName( ) + "' failed : " + e.getCause( );
+        }
+    }
+
+    /**
+     * Indexing task of a data source
+     */
+    @FunctionalInterface
+    public interface DataSourceTask
+    {
+        /**
+         * Index a data source
+         * 
+         * @param dataSource
+         *            the data source
+         * @return the logs of the indexing
+         */
+        String run( DataSource dataSource );
+    }
+}
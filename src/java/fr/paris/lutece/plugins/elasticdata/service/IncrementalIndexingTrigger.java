@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.elasticdata.business.DataSource;
+import fr.paris.lutece.plugins.elasticdata.service.event.IndexerActionAddedEvent;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.BeforeDestroyed;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+
+/**
+ * Near real time incremental indexing. Each task added to the queue of a data source signals its trigger : the incremental indexing of the data source is
+ * run once no signal has been received for the debounce delay, at the latest the max wait delay after the first signal, or as soon as the number of signals
+ * reaches the max batch threshold. While the data source is being indexed incrementally, the trigger backs off, doubling its delay up to the max wait delay.
+ * The changes reach the index within seconds while still being sent in bulk.
+ */
+@ApplicationScoped
+public class IncrementalIndexingTrigger
+{
+    private static final String PROPERTY_NEAR_REAL_TIME = "elasticdata.near_real_time";
+    private static final boolean NEAR_REAL_TIME = AppPropertiesService.getPropertyBoolean( PROPERTY_NEAR_REAL_TIME, false );
+    private static final String PROPERTY_DEBOUNCE = "elasticdata.near_real_time_debounce";
+    private static final long DEBOUNCE = AppPropertiesService.getPropertyInt( PROPERTY_DEBOUNCE, 500 );
+    private static final String PROPERTY_MAX_BATCH = "elasticdata.near_real_time_max_batch";
+    private static final int MAX_BATCH = AppPropertiesService.getPropertyInt( PROPERTY_MAX_BATCH, 1000 );
+    private static final String PROPERTY_MAX_WAIT = "elasticdata.near_real_time_max_wait";
+    private static final long MAX_WAIT = Math.max( DEBOUNCE, AppPropertiesService.getPropertyInt( PROPERTY_MAX_WAIT, 5000 ) );
+
+    private static final Map<String, Trigger> _mapTriggers = new ConcurrentHashMap<>( );
+    private static ScheduledExecutorService _scheduler;
+    private static boolean _bShutdown;
+
+    /**
+     * Check if the near real time mode is enabled
+     * 
+     * @return true if the tasks added trigger the incremental indexing
+     */
+    public static boolean isEnabled( )
+    {
+        return NEAR_REAL_TIME;
+    }
+
+    /**
+     * Signal that a task has been added to the queue of a data source
+     * 
+     * @param strIdDataSource
+     *            the data source id
+     */
+    public static void signal( String strIdDataSource )
+    {
+        if ( NEAR_REAL_TIME )
+        {
+            _mapTriggers.computeIfAbsent( strIdDataSource, Trigger::new ).signal( );
+        }
+    }
+
+    /**
+     * Signal the data source of a task once the transaction that has added it is committed, so that the run triggered reads it. Outside of a transaction,
+     * the data source is signaled at once.
+     * 
+     * @param event
+     *            the event
+     */
+    public void onIndexerActionAdded( @Observes( during = TransactionPhase.AFTER_SUCCESS ) IndexerActionAddedEvent event )
+    {
+        signal( event.getDataSourceId( ) );
+    }
+
+    /**
+     * Stop the scheduler of the triggers before the application is stopped. The windows still open are dropped : their tasks stay in the queue for the
+     * daemon.
+     * 
+     * @param context
+     *            the application context
+     */
+    public void onShutdown( @Observes @BeforeDestroyed( ApplicationScoped.class ) Object context )
+    {
+        ScheduledExecutorService scheduler;
+        synchronized( IncrementalIndexingTrigger.class )
+        {
+            _bShutdown = true;
+            scheduler = _scheduler;
+            _scheduler = null;
+        }
+        if ( scheduler != null )
+        {
+            scheduler.shutdownNow( );
+        }
+        _mapTriggers.clear( );
+    }
+
+    /**
+     * Returns the scheduler of the triggers, created on first use
+     * 
+     * @return the scheduler, or null once the application is stopping
+     */
+    private static synchronized ScheduledExecutorService getScheduler( )
+    {
+        if ( ( _scheduler == null ) && !_bShutdown )
+        {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor( 1, IndexingExecutors.getThreadFactory( ) );
+            scheduler.setRemoveOnCancelPolicy( true );
+            _scheduler = scheduler;
+        }
+        return _scheduler;
+    }
+
+    /**
+     * Trigger of a data source
+     */
+    private static final class Trigger
+    {
+        private final String _strIdDataSource;
+        private int _nSignals;
+        private long _lFirstSignal;
+        private long _lLastSignal;
+        private int _nBackOffs;
+        private ScheduledFuture<?> _future;
+
+        /**
+         * Constructor
+         * 
+         * @param strIdDataSource
+         *            the data source id
+         */
+        private Trigger( String strIdDataSource )
+        {
+            _strIdDataSource = strIdDataSource;
+        }
+
+        /**
+         * Count a signal, opening a window or closing it early when the max batch threshold is reached. The end of an open window is pushed back by the
+         * closing itself, which checks the time of the last signal.
+         */
+        private synchronized void signal( )
+        {
+            long lNow = System.nanoTime( );
+            _nSignals++;
+            _lLastSignal = lNow;
+            if ( _future == null )
+            {
+                _lFirstSignal = lNow;
+                _future = schedule( DEBOUNCE );
+            }
+            else
+                if ( ( _nSignals >= MAX_BATCH ) && ( _nBackOffs == 0 ) && _future.cancel( false ) )
+                {
+                    _future = schedule( 0 );
+                }
+        }
+
+        /**
+         * Schedule the closing of the window
+         * 
+         * @param lDelay
+         *            the delay in milliseconds
+         * @return the future of the closing, or null if the application is stopping
+         */
+        private ScheduledFuture<?> schedule( long lDelay )
+        {
+            ScheduledExecutorService scheduler = getScheduler( );
+            if ( scheduler == null )
+            {
+                return null;
+            }
+            try
+            {
+                return scheduler.schedule( this::fire, lDelay, TimeUnit.MILLISECONDS );
+            }
+            catch( RejectedExecutionException e )
+            {
+                return null;
+            }
+        }
+
+        /**
+         * Close the window and start the incremental indexing of the data source. The window is kept open while signals are still received within the
+         * debounce delay, up to the max wait delay. If the data source is already being indexed incrementally, the window is opened again after a back-off
+         * delay so that the tasks added meanwhile are not left to the daemon.
+         */
+        private void fire( )
+        {
+            if ( postpone( ) )
+            {
+                return;
+            }
+            DataSource dataSource = null;
+            boolean bBusy = false;
+            try
+            {
+                DataSource ds = DataSourceService.getDataSource( _strIdDataSource );
+                if ( ds != null )
+                {
+                    if ( ds.getIndexingStatus( ).getIsIncrementalRunning( ).compareAndSet( false, true ) )
+                    {
+                        dataSource = ds;
+                    }
+                    else
+                    {
+                        bBusy = true;
+                    }
+                }
+            }
+            catch( RuntimeException e )
+            {
+                AppLogService.error( "ElasticData near real time trigger error for DataSource " + _strIdDataSource, e );
+            }
+            finally
+            {
+                // The window is always closed, otherwise the next signals would never be scheduled
+                reset( bBusy );
+            }
+            if ( dataSource != null )
+            {
+                start( dataSource );
+            }
+        }
+
+        /**
+         * Push back the closing of the window if a signal has been received within the debounce delay and the max wait delay is not reached
+         * 
+         * @return true if the closing has been pushed back
+         */
+        private synchronized boolean postpone( )
+        {
+            if ( ( _nBackOffs > 0 ) || ( _nSignals >= MAX_BATCH ) )
+            {
+                return false;
+            }
+            long lNow = System.nanoTime( );
+            long lQuiet = DEBOUNCE - TimeUnit.NANOSECONDS.toMillis( lNow - _lLastSignal );
+            long lWait = MAX_WAIT - TimeUnit.NANOSECONDS.toMillis( lNow - _lFirstSignal );
+            long lDelay = Math.min( lQuiet, lWait );
+            if ( lDelay <= 0 )
+            {
+                return false;
+            }
+            _future = schedule( lDelay );
+            if ( _future == null )
+            {
+                _nSignals = 0;
+            }
+            return true;
+        }
+
+        /**
+         * Start the incremental indexing of a data source whose running flag is set
+         * 
+         * @param dataSource
+         *            the data source
+         */
+        private void start( DataSource dataSource )
+        {
+            try
+            {
+                IndexingExecutors.start( ( ) -> {
+                    try
+                    {
+                        DataSourceIncrementalService.processIncrementalIndexing( dataSource );
+                        AppLogService.debug( "ElasticData near real time indexing of DataSource {} : {}", dataSource.getName( ),
+                                dataSource.getIndexingStatus( ).getSbLogs( ) );
+                    }
+                    catch( ElasticClientException | RuntimeException e )
+                    {
+                        AppLogService.error( "ElasticData near real time indexing error for DataSource " + dataSource.getName( ), e );
+                    }
+                    finally
+                    {
+                        dataSource.getIndexingStatus( ).getIsIncrementalRunning( ).set( false );
+                    }
+                } );
+            }
+            catch( RuntimeException e )
+            {
+                dataSource.getIndexingStatus( ).getIsIncrementalRunning( ).set( false );
+                AppLogService.error( "ElasticData near real time indexing not started for DataSource " + dataSource.getName( ), e );
+            }
+        }
+
+        /**
+         * Close the current window
+         * 
+         * @param bBusy
+         *            true if the data source is being indexed incrementally : a new window is opened for the signals of the current one after a back-off
+         *            delay, doubled at each attempt up to the max wait delay
+         */
+        private synchronized void reset( boolean bBusy )
+        {
+            if ( bBusy )
+            {
+                long lBackOff = Math.min( Math.max( 1L, DEBOUNCE ) << Math.min( _nBackOffs, 16 ), MAX_WAIT );
+                _nBackOffs++;
+                _future = schedule( lBackOff );
+            }
+            else
+            {
+                _future = null;
+            }
+            if ( _future == null )
+            {
+                _nSignals = 0;
+                _nBackOffs = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import fr.paris.lutece.plugins.elasticdata.business.DataSource;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticHttpException;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
+import fr.paris.lutece.plugins.libraryelastic.util.Elastic;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * A generation of the index of a data source, named <code>&lt;target&gt;_&lt;timestamp&gt;</code>. The generation is filled while the previous one is
+ * still served through the alias named after the target index, then the alias is atomically moved to it. While a generation is loaded, the incremental
+ * changes of its data source are written to both the generation and the alias, so that they are not lost by the swap.
+ */
+public class IndexGeneration
+{
+    private static final DateTimeFormatter FORMATTER_TIMESTAMP = DateTimeFormatter.ofPattern( "yyyyMMddHHmmss" );
+    private static final String SETTING_REFRESH_INTERVAL = "refresh_interval";
+    private static final String SETTING_NUMBER_OF_REPLICAS = "number_of_replicas";
+    private static final String FLAT_SETTING_PREFIX = "index.";
+    private static final String FIELD_SETTINGS = "settings";
+    private static final String FIELD_DEFAULTS = "defaults";
+    private static final String LOADING_SETTINGS = "{ \"index\" : { \"refresh_interval\" : \"-1\", \"number_of_replicas\" : 0 } }";
+    private static final int HTTP_NOT_FOUND = 404;
+
+    private static ObjectMapper _mapper = new ObjectMapper( );
+    // Generations being loaded by this node, by data source
+    private static final Map<String, String> _mapLoadingIndices = new ConcurrentHashMap<>( );
+
+    private final DataSource _dataSource;
+    private final ElasticRestClient _client;
+    private final String _strIndexName;
+    private String _strRefreshInterval;
+    private String _strNumberOfReplicas;
+
+    /**
+     * Constructor
+     * 
+     * @param dataSource
+     *            the data source
+     * @param client
+     *            the Elasticsearch client
+     * @param strIndexName
+     *            the name of the generation index
+     */
+    private IndexGeneration( DataSource dataSource, ElasticRestClient client, String strIndexName )
+    {
+        _dataSource = dataSource;
+        _client = client;
+        _strIndexName = strIndexName;
+    }
+
+    /**
+     * Create a new generation of the index of a data source, with the settings that speed up its loading : no refresh and no replica
+     * 
+     * @param dataSource
+     *            the data source
+     * @param elastic
+     *            the Elastic server
+     * @param client
+     *            the Elasticsearch client
+     * @param strMappings
+     *            the mappings of the index
+     * @return the generation
+     * @throws ElasticClientException
+     *             If an error occurs accessing to ElasticSearch
+     */
+    public static IndexGeneration create( DataSource dataSource, Elastic elastic, ElasticRestClient client, String strMappings )
+            throws ElasticClientException
+    {
+        String strIndexName = dataSource.getTargetIndexName( ) + "_" + LocalDateTime.now( ).format( FORMATTER_TIMESTAMP );
+        IndexGeneration generation = new IndexGeneration( dataSource, client, strIndexName );
+        elastic.createMappings( strIndexName, strMappings );
+
+        // The defaults are included : the refresh interval is not part of the settings of an index created without it
+        JsonNode settings = generation.readJson( ElasticRestClient.METHOD_GET, "/" + strIndexName + "/_settings?flat_settings=true&include_defaults=true" )
+                .path( strIndexName );
+        generation._strRefreshInterval = getSetting( settings, SETTING_REFRESH_INTERVAL );
+        generation._strNumberOfReplicas = getSetting( settings, SETTING_NUMBER_OF_REPLICAS );
+        client.doRequest( ElasticRestClient.METHOD_PUT, "/" + strIndexName + "/_settings", LOADING_SETTINGS );
+        _mapLoadingIndices.put( dataSource.getId( ), strIndexName );
+        AppLogService.info( "ElasticData : index generation {} created for DataSource '{}'", strIndexName, dataSource.getName( ) );
+
+        return generation;
+    }
+
+    /**
+     * Get back a generation whose loading has been interrupted. The settings it had before its loading are not known anymore : they are reset to their
+     * default values when it is published.
+     * 
+     * @param dataSource
+     *            the data source
+     * @param client
+     *            the Elasticsearch client
+     * @param strIndexName
+     *            the name of the generation index
+     * @return the generation
+     */
+    public static IndexGeneration resume( DataSource dataSource, ElasticRestClient client, String strIndexName )
+    {
+        _mapLoadingIndices.put( dataSource.getId( ), strIndexName );
+        return new IndexGeneration( dataSource, client, strIndexName );
+    }
+
+    /**
+     * Returns the generation being loaded by this node for a data source. It is registered until it is published or discarded, including while an
+     * interrupted loading waits to be resumed.
+     * 
+     * @param dataSource
+     *            the data source
+     * @return the name of the generation index, or null if no generation is being loaded
+     */
+    public static String getLoadingIndexName( DataSource dataSource )
+    {
+        return _mapLoadingIndices.get( dataSource.getId( ) );
+    }
+
+    /**
+     * Read a flat setting of an index, from its settings or from the defaults
+     * 
+     * @param index
+     *            the settings of the index, with the defaults
+     * @param strSetting
+     *            the name of the setting, without the index prefix
+     * @return the value of the setting, or null if it is unknown
+     */
+    private static String getSetting( JsonNode index, String strSetting )
+    {
+        JsonNode value = index.path( FIELD_SETTINGS ).path( FLAT_SETTING_PREFIX + strSetting );
+        if ( value.isMissingNode( ) )
+        {
+            value = index.path( FIELD_DEFAULTS ).path( FLAT_SETTING_PREFIX + strSetting );
+        }
+        return value.textValue( );
+    }
+
+    /**
+     * Returns the name of the generation index
+     * 
+     * @return the index name
+     */
+    public String getIndexName( )
+    {
+        return _strIndexName;
+    }
+
+    /**
+     * Publish the generation : restore its settings, refresh it, move the alias to it and drop the oldest generations
+     * 
+     * @param elastic
+     *            the Elastic server
+     * @param nGenerationsKept
+     *            the number of previous generations to keep
+     * @throws ElasticClientException
+     *             If an error occurs accessing to ElasticSearch
+     */
+    public void publish( Elastic elastic, int nGenerationsKept ) throws ElasticClientException
+    {
+        String strAlias = _dataSource.getTargetIndexName( );
+
+        ObjectNode settings = _mapper.createObjectNode( );
+        ObjectNode index = settings.putObject( "index" );
+        index.put( SETTING_REFRESH_INTERVAL, _strRefreshInterval );
+        index.put( SETTING_NUMBER_OF_REPLICAS, _strNumberOfReplicas );
+        _client.doRequest( ElasticRestClient.METHOD_PUT, "/" + _strIndexName + "/_settings", settings.toString( ) );
+        _client.doRequest( ElasticRestClient.METHOD_POST, "/" + _strIndexName + "/_refresh", null );
+
+        // Move the alias in a single atomic request. An index created before the alias mode has the name of the alias and is removed by the same request.
+        List<String> listLiveIndices = getAliasIndices( strAlias );
+        ObjectNode aliases = _mapper.createObjectNode( );
+        ArrayNode actions = aliases.putArray( "actions" );
+        for ( String strLiveIndex : listLiveIndices )
+        {
+            actions.addObject( ).putObject( "remove" ).put( "index", strLiveIndex ).put( "alias", strAlias );
+        }
+        actions.addObject( ).putObject( "add" ).put( "index", _strIndexName ).put( "alias", strAlias );
+        if ( listLiveIndices.isEmpty( ) && elastic.isExists( strAlias ) )
+        {
+            actions.addObject( ).putObject( "remove_index" ).put( "index", strAlias );
+        }
+        _client.doRequest( ElasticRestClient.METHOD_POST, "/_aliases", aliases.toString( ) );
+        _mapLoadingIndices.remove( _dataSource.getId( ), _strIndexName );
+        AppLogService.info( "ElasticData : alias {} moved to the index generation {}", strAlias, _strIndexName );
+
+        dropOldGenerations( nGenerationsKept );
+    }
+
+    /**
+     * Delete the generation, after a failed loading
+     */
+    public void discard( )
+    {
+        _mapLoadingIndices.remove( _dataSource.getId( ), _strIndexName );
+        try
+        {
+            _client.doRequest( ElasticRestClient.METHOD_DELETE, "/" + _strIndexName, null );
+        }
+        catch( ElasticClientException e )
+        {
+            AppLogService.error( "ElasticData : unable to delete the index generation " + _strIndexName, e );
+        }
+    }
+
+    /**
+     * Delete the generations older than the kept ones
+     * 
+     * @param nGenerationsKept
+     *            the number of previous generations to keep
+     * @throws ElasticClientException
+     *             If an error occurs accessing to ElasticSearch
+     */
+    private void dropOldGenerations( int nGenerationsKept ) throws ElasticClientException
+    {
+        String strAlias = _dataSource.getTargetIndexName( );
+        Pattern patternGeneration = Pattern.compile( Pattern.quote( strAlias + "_" ) + "\\d{14}" );
+        List<String> listGenerations = new ArrayList<>( );
+        for ( JsonNode index : readJson( ElasticRestClient.METHOD_GET, "/_cat/indices/" + strAlias + "_*?h=index&format=json" ) )
+        {
+            String strIndex = index.path( "index" ).asText( );
+            if ( patternGeneration.matcher( strIndex ).matches( ) && !strIndex.equals( _strIndexName ) )
+            {
+                listGenerations.add( strIndex );
+            }
+        }
+        // The timestamp suffix sorts the generations from the most recent
+        listGenerations.sort( Collections.reverseOrder( ) );
+        for ( int i = Math.max( 0, nGenerationsKept ); i < listGenerations.size( ); i++ )
+        {
+            _client.doRequest( ElasticRestClient.METHOD_DELETE, "/" + listGenerations.get( i ), null );
+            AppLogService.info( "ElasticData : old index generation {} deleted", listGenerations.get( i ) );
+        }
+    }
+
+    /**
+     * Get the indices pointed by an alias
+     * 
+     * @param strAlias
+     *            the alias
+     * @return the list of indices, empty if the alias doesn't exist
+     * @throws ElasticClientException
+     *             If an error occurs accessing to ElasticSearch
+     */
+    private List<String> getAliasIndices( String strAlias ) throws ElasticClientException
+    {
+        List<String> listIndices = new ArrayList<>( );
+        try
+        {
+            Iterator<String> iterator = readJson( ElasticRestClient.METHOD_GET, "/_alias/" + strAlias ).fieldNames( );
+            iterator.forEachRemaining( listIndices::add );
+        }
+        catch( ElasticClientException e )
+        {
+            if ( ElasticHttpException.getStatus( e ) != HTTP_NOT_FOUND )
+            {
+                throw e;
+            }
+        }
+        return listIndices;
+    }
+
+    /**
+     * Send a request and parse its JSON response
+     * 
+     * @param strMethod
+     *            the HTTP method
+     * @param strPath
+     *            the path
+     * @return the parsed response
+     * @throws ElasticClientException
+     *             If an error occurs accessing to ElasticSearch
+     */
+    private JsonNode readJson( String strMethod, String strPath ) throws ElasticClientException
+    {
+        String strResponse = _client.doRequest( strMethod, strPath, null );
+        try
+        {
+            return _mapper.readTree( strResponse );
+        }
+        catch( JsonProcessingException e )
+        {
+            throw new ElasticClientException( "ElasticData unable to parse the response of " + strPath, e );
+        }
+    }
+}
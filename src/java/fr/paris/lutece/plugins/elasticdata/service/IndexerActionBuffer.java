@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.plugins.elasticdata.business.IndexerActionHome;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.BeforeDestroyed;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * Write-behind buffer of the incremental tasks. The tasks are collapsed in memory by data source and resource with the rules of
+ * {@link DataSourceIncrementalService#addTask(String, String, int, int)}, and written to the indexer action table by a timer, as soon as the buffer reaches its
+ * size threshold, and when the application is stopped.
+ */
+@ApplicationScoped
+public class IndexerActionBuffer
+{
+    private static final String PROPERTY_ENABLED = "elasticdata.indexer_action_buffer";
+    private static final boolean ENABLED = AppPropertiesService.getPropertyBoolean( PROPERTY_ENABLED, false );
+    private static final String PROPERTY_FLUSH_INTERVAL = "elasticdata.indexer_action_buffer_flush_interval";
+    private static final long FLUSH_INTERVAL = AppPropertiesService.getPropertyInt( PROPERTY_FLUSH_INTERVAL, 1000 );
+    private static final String PROPERTY_MAX_SIZE = "elasticdata.indexer_action_buffer_max_size";
+    private static final int MAX_SIZE = AppPropertiesService.getPropertyInt( PROPERTY_MAX_SIZE, 1000 );
+
+    // Pending actions by data source and resource, in the order of their first signal
+    private Map<String, Map<String, IndexerAction>> _mapPending = new LinkedHashMap<>( );
+    private int _nSize;
+    private ScheduledExecutorService _scheduler;
+    private final Object _flushLock = new Object( );
+
+    /**
+     * Check if the incremental tasks are buffered
+     * 
+     * @return true if the buffer is enabled
+     */
+    public static boolean isEnabled( )
+    {
+        return ENABLED;
+    }
+
+    /**
+     * Add a task to the buffer
+     * 
+     * @param strIdDataSource
+     *            the datasource id
+     * @param strIdResource
+     *            the resource id
+     * @param nIdTask
+     *            the task id
+     * @param nPriority
+     *            the priority of the task
+     */
+    public void add( String strIdDataSource, String strIdResource, int nIdTask, int nPriority )
+    {
+        boolean bFull;
+        ScheduledExecutorService scheduler;
+        synchronized( this )
+        {
+            if ( _scheduler == null )
+            {
+                _scheduler = new ScheduledThreadPoolExecutor( 1, IndexingExecutors.getThreadFactory( ) );
+                _scheduler.scheduleWithFixedDelay( this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS );
+            }
+            scheduler = _scheduler;
+            _nSize += collapse( _mapPending, strIdDataSource, strIdResource, nIdTask, nPriority );
+            bFull = _nSize >= MAX_SIZE;
+        }
+        if ( scheduler.isShutdown( ) )
+        {
+            // The application is being stopped : the task is written right away
+            flush( );
+        }
+        else
+            if ( bFull )
+            {
+                scheduler.execute( this::flush );
+            }
+    }
+
+    /**
+     * Write the pending tasks to the indexer action table. The flushes are serialized so that the tasks of a resource are written in order.
+     */
+    public void flush( )
+    {
+        synchronized( _flushLock )
+        {
+            Map<String, Map<String, IndexerAction>> mapPending;
+            synchronized( this )
+            {
+                if ( _mapPending.isEmpty( ) )
+                {
+                    return;
+                }
+                mapPending = _mapPending;
+                _mapPending = new LinkedHashMap<>( );
+                _nSize = 0;
+            }
+            for ( Map.Entry<String, Map<String, IndexerAction>> entry : mapPending.entrySet( ) )
+            {
+                try
+                {
+                    IndexerActionHome.upsertBatch( new ArrayList<>( entry.getValue( ).values( ) ) );
+                    IncrementalIndexingTrigger.signal( entry.getKey( ) );
+                }
+                catch( RuntimeException e )
+                {
+                    AppLogService.error( "ElasticData unable to write the buffered tasks of DataSource " + entry.getKey( ) + ", they are kept for the next flush",
+                            e );
+                    restore( entry.getKey( ), entry.getValue( ) );
+                }
+            }
+        }
+    }
+
+    /**
+     * Flush the buffer before the application is stopped
+     * 
+     * @param context
+     *            the application context
+     */
+    public void onShutdown( @Observes @BeforeDestroyed( ApplicationScoped.class ) Object context )
+    {
+        ScheduledExecutorService scheduler;
+        synchronized( this )
+        {
+            scheduler = _scheduler;
+        }
+        if ( scheduler != null )
+        {
+            scheduler.shutdown( );
+        }
+        flush( );
+    }
+
+    /**
+     * Put back in the buffer the tasks of a failed flush, before the tasks buffered meanwhile
+     * 
+     * @param strIdDataSource
+     *            the datasource id
+     * @param mapActions
+     *            the actions of the failed flush by resource
+     */
+    private synchronized void restore( String strIdDataSource, Map<String, IndexerAction> mapActions )
+    {
+        Map<String, Map<String, IndexerAction>> mapPending = new LinkedHashMap<>( );
+        mapPending.put( strIdDataSource, new LinkedHashMap<>( mapActions ) );
+        int nSize = mapActions.size( );
+        for ( Map.Entry<String, Map<String, IndexerAction>> entry : _mapPending.entrySet( ) )
+        {
+            for ( IndexerAction action : entry.getValue( ).values( ) )
+            {
+                nSize += collapse( mapPending, entry.getKey( ), action.getIdResource( ), action.getIdTask( ), action.getPriority( ) );
+            }
+        }
+        _mapPending = mapPending;
+        _nSize = nSize;
+    }
+
+    /**
+     * Collapse a task with the action pending for the same resource, the action keeping the highest priority
+     * 
+     * @param mapPending
+     *            the pending tasks by data source and resource
+     * @param strIdDataSource
+     *            the datasource id
+     * @param strIdResource
+     *            the resource id
+     * @param nIdTask
+     *            the task id
+     * @param nPriority
+     *            the priority of the task
+     * @return the change of the number of pending tasks
+     */
+    static int collapse( Map<String, Map<String, IndexerAction>> mapPending, String strIdDataSource, String strIdResource, int nIdTask,
+            int nPriority )
+    {
+        Map<String, IndexerAction> mapActions = mapPending.computeIfAbsent( strIdDataSource, strId -> new LinkedHashMap<>( ) );
+        IndexerAction actionPending = mapActions.get( strIdResource );
+        if ( actionPending == null )
+        {
+            IndexerAction indexerAction = new IndexerAction( );
+            indexerAction.setIdDataSource( strIdDataSource );
+            indexerAction.setIdResource( strIdResource );
+            indexerAction.setIdTask( nIdTask );
+            indexerAction.setPriority( nPriority );
+            mapActions.put( strIdResource, indexerAction );
+            return 1;
+        }
+        actionPending.setIdTask( DataSourceIncrementalService.collapseTasks( actionPending.getIdTask( ), nIdTask ) );
+        actionPending.setPriority( Math.max( actionPending.getPriority( ), nPriority ) );
+        return 0;
+    }
+}
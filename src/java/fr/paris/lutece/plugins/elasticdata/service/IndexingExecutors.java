@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.inject.spi.CDI;
+
+/**
+ * Threads of the indexing jobs. They are created by the container managed thread factory, or are virtual threads when this mode is enabled and the JVM
+ * supports them (Java 21 and later). The virtual threads are reached by reflection so that the plugin still runs on older JVMs.
+ */
+public final class IndexingExecutors
+{
+    private static final String PROPERTY_VIRTUAL_THREADS = "elasticdata.virtual_threads";
+    private static final boolean VIRTUAL_THREADS = AppPropertiesService.getPropertyBoolean( PROPERTY_VIRTUAL_THREADS, false );
+    private static final String THREAD_NAME_PREFIX = "elasticdata-";
+    private static final long AWAIT_TERMINATION_INTERVAL = 1L;
+
+    private static Method _methodNewThreadPerTaskExecutor;
+    private static ThreadFactory _threadFactory = createThreadFactory( );
+
+    /**
+     * Private constructor
+     */
+    private IndexingExecutors( )
+    {
+    }
+
+    /**
+     * Returns the factory of the indexing threads
+     * 
+     * @return the thread factory
+     */
+    public static ThreadFactory getThreadFactory( )
+    {
+        return _threadFactory;
+    }
+
+    /**
+     * Check if the indexing jobs run on virtual threads
+     * 
+     * @return true if the threads are virtual
+     */
+    public static boolean isVirtual( )
+    {
+        return _methodNewThreadPerTaskExecutor != null;
+    }
+
+    /**
+     * Start an indexing job in a new thread
+     * 
+     * @param task
+     *            the job
+     */
+    public static void start( Runnable task )
+    {
+        _threadFactory.newThread( task ).start( );
+    }
+
+    /**
+     * Create an executor of the indexing threads
+     * 
+     * @param nThreads
+     *            the number of tasks run concurrently
+     * @return the executor
+     */
+    public static ExecutorService newExecutor( int nThreads )
+    {
+        return newExecutor( nThreads, _threadFactory );
+    }
+
+    /**
+     * Create an executor. In the virtual threads mode each task gets its own thread, the callers bounding the number of tasks they submit ; otherwise the
+     * tasks are run by a fixed pool of threads.
+     * 
+     * @param nThreads
+     *            the number of tasks run concurrently
+     * @param threadFactory
+     *            the factory of the threads
+     * @return the executor
+     */
+    public static ExecutorService newExecutor( int nThreads, ThreadFactory threadFactory )
+    {
+        if ( isVirtual( ) )
+        {
+            try
+            {
+                return (ExecutorService) _methodNewThreadPerTaskExecutor.invoke( null, threadFactory );
+            }
+            catch( ReflectiveOperationException e )
+            {
+                AppLogService.error( "ElasticData : unable to create a thread per task executor", e );
+            }
+        }
+        return Executors.newFixedThreadPool( nThreads, threadFactory );
+    }
+
+    /**
+     * Stop an executor, interrupting its running tasks, and wait for their end even if the current thread is interrupted
+     * 
+     * @param executor
+     *            the executor
+     */
+    public static void shutdownAndAwait( ExecutorService executor )
+    {
+        executor.shutdownNow( );
+        boolean bInterrupted = false;
+        while ( !executor.isTerminated( ) )
+        {
+            try
+            {
+                executor.awaitTermination( AWAIT_TERMINATION_INTERVAL, TimeUnit.SECONDS );
+            }
+            catch( InterruptedException e )
+            {
+                bInterrupted = true;
+            }
+        }
+        if ( bInterrupted )
+        {
+            Thread.currentThread( ).interrupt( );
+        }
+    }
+
+    /**
+     * Create the factory of the indexing threads
+     * 
+     * @return the factory of virtual threads if enabled and available, the managed thread factory otherwise
+     */
+    private static ThreadFactory createThreadFactory( )
+    {
+        if ( VIRTUAL_THREADS )
+        {
+            try
+            {
+                Object builder = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+                Class<?> classBuilder = Class.forName( "java.lang.Thread$Builder" );
+                builder = classBuilder.getMethod( "name", String.class, long.class ).invoke( builder, THREAD_NAME_PREFIX, 0L );
+                ThreadFactory threadFactory = (ThreadFactory) classBuilder.getMethod( "factory" ).invoke( builder );
+                _methodNewThreadPerTaskExecutor = Executors.class.getMethod( "newThreadPerTaskExecutor", ThreadFactory.class );
+                AppLogService.info( "ElasticData : indexing jobs run on virtual threads" );
+                return threadFactory;
+            }
+            catch( ReflectiveOperationException e )
+            {
+                AppLogService.info( "ElasticData : virtual threads not available on this JVM, indexing jobs run on platform threads" );
+            }
+        }
+        return CDI.current( ).select( ManagedThreadFactory.class ).get( );
+    }
+}
@@ -0,0 +1,544 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
+
+import fr.paris.lutece.plugins.elasticdata.business.DataObject;
+import fr.paris.lutece.plugins.elasticdata.business.DataSource;
+import fr.paris.lutece.plugins.elasticdata.business.IndexerActionHome;
+import fr.paris.lutece.plugins.elasticdata.business.IndexingCheckpoint;
+import fr.paris.lutece.plugins.elasticdata.business.IndexingCheckpointHome;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkBody;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkBodyBuilder;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkDispatcher;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkIndexer;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkResult;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkSender;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Staged pipeline for the full indexing of a data source. The data objects are fetched, enriched with their external attributes, serialized and sent to
+ * Elasticsearch by distinct threads linked by bounded queues, so that the next batch is loaded while the previous one is in flight.
+ */
+public class IndexingPipeline
+{
+    private static final Batch END_OF_BATCHES = new Batch( );
+    private static final long STAGE_JOIN_INTERVAL = 1000L;
+
+    private final DataSource _dataSource;
+    private final String _strIndexName;
+    private final ElasticRestClient _client;
+    private final ThreadFactory _threadFactory;
+    private final BlockingQueue<Batch> _queueFetched;
+    private final BlockingQueue<Batch> _queueEnriched;
+    private final BlockingQueue<Batch> _queueSerialized;
+    private final AtomicReference<Exception> _failure = new AtomicReference<>( );
+    private final AtomicInteger _nCount = new AtomicInteger( );
+    private final AtomicInteger _nCountIndexed;
+    private final BulkDispatcher<BulkResult> _dispatcher;
+    private IndexingCheckpoint _checkpoint;
+    private boolean _bCheckpointFrozen;
+
+    /**
+     * Constructor
+     * 
+     * @param dataSource
+     *            the data source
+     * @param strIndexName
+     *            the name of the index to fill
+     * @param client
+     *            the Elasticsearch client
+     * @param threadFactory
+     *            the factory of the stage threads
+     */
+    public IndexingPipeline( DataSource dataSource, String strIndexName, ElasticRestClient client, ThreadFactory threadFactory )
+    {
+        this( dataSource, strIndexName, client, threadFactory, new AtomicInteger( ) );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param dataSource
+     *            the data source
+     * @param strIndexName
+     *            the name of the index to fill
+     * @param client
+     *            the Elasticsearch client
+     * @param threadFactory
+     *            the factory of the stage threads
+     * @param nCountIndexed
+     *            the counter of indexed documents shared by the pipelines of a same data source, used to report the progress of the indexing
+     */
+    public IndexingPipeline( DataSource dataSource, String strIndexName, ElasticRestClient client, ThreadFactory threadFactory, AtomicInteger nCountIndexed )
+    {
+        _nCountIndexed = nCountIndexed;
+        _dataSource = dataSource;
+        _strIndexName = strIndexName;
+        _client = client;
+        _threadFactory = threadFactory;
+        int nQueueDepth = Math.max( 1, dataSource.getPipelineQueueDepth( ) );
+        _queueFetched = new ArrayBlockingQueue<>( nQueueDepth );
+        _queueEnriched = new ArrayBlockingQueue<>( nQueueDepth );
+        _queueSerialized = new ArrayBlockingQueue<>( nQueueDepth );
+        _dispatcher = new BulkDispatcher<>( dataSource.getBulkMaxInFlight( ), threadFactory );
+    }
+
+    /**
+     * Sets the checkpoint updated each time a bulk request is acknowledged. The checkpoint doesn't move past a body with rejected actions anymore, so that
+     * a resumed run indexes them again.
+     * 
+     * @param checkpoint
+     *            the checkpoint of the run
+     */
+    public void setCheckpoint( IndexingCheckpoint checkpoint )
+    {
+        _checkpoint = checkpoint;
+    }
+
+    /**
+     * Run the pipeline until all the data objects of the iterator are sent
+     * 
+     * @param iterateDataObjects
+     *            The iterator of objects
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a stage of the pipeline has failed
+     */
+    public int run( Iterator<DataObject> iterateDataObjects ) throws ElasticClientException
+    {
+        IndexingStatus status = _dataSource.getIndexingStatus( );
+        List<Thread> listStages = new ArrayList<>( );
+        listStages.add( startStage( _queueFetched, _queueEnriched, this::enrich, status::addEnrichDuration ) );
+        listStages.add( startStage( _queueEnriched, _queueSerialized, this::serialize, status::addSerializeDuration ) );
+        // The send duration is measured by the bulk requests themselves as several of them may be in flight
+        listStages.add( startStage( _queueSerialized, null, this::send, lDuration -> {
+        } ) );
+
+        try
+        {
+            fetch( iterateDataObjects );
+        }
+        catch( RuntimeException e )
+        {
+            fail( e );
+        }
+        finally
+        {
+            putEndOfBatches( _queueFetched );
+        }
+
+        awaitStages( listStages );
+        // Wait for the bulk requests still in flight once the send stage is over
+        try ( BulkDispatcher<BulkResult> dispatcher = _dispatcher )
+        {
+            if ( _failure.get( ) == null )
+            {
+                dispatcher.flush( );
+            }
+        }
+        catch( ElasticClientException e )
+        {
+            fail( e );
+        }
+
+        Exception failure = _failure.get( );
+        if ( failure instanceof ElasticClientException )
+        {
+            throw (ElasticClientException) failure;
+        }
+        if ( failure != null )
+        {
+            throw new ElasticClientException( "ElasticData indexing pipeline error", failure );
+        }
+        AppLogService.debug( "ElasticData indexing : completed for {} documents of DataSource: {}", _nCount.get( ), _dataSource.getName( ) );
+
+        return _nCount.get( );
+    }
+
+    /**
+     * Wait for the end of all the stage threads, even if the current thread is interrupted, so that no stage outlives the run. Once the pipeline has
+     * failed, the stages still running are interrupted so that they don't stay blocked on a queue, a bulk request slot or a long processing.
+     * 
+     * @param listStages
+     *            the stage threads
+     */
+    private void awaitStages( List<Thread> listStages )
+    {
+        boolean bInterrupted = false;
+        for ( Thread stage : listStages )
+        {
+            while ( stage.isAlive( ) )
+            {
+                if ( _failure.get( ) != null )
+                {
+                    listStages.forEach( Thread::interrupt );
+                }
+                try
+                {
+                    stage.join( STAGE_JOIN_INTERVAL );
+                }
+                catch( InterruptedException e )
+                {
+                    fail( e );
+                    bInterrupted = true;
+                }
+            }
+        }
+        if ( bInterrupted )
+        {
+            Thread.currentThread( ).interrupt( );
+        }
+    }
+
+    /**
+     * Fetch stage : group the data objects into batches. The iterator loads the objects from the data source while the batches are consumed.
+     * 
+     * @param iterateDataObjects
+     *            The iterator of objects
+     */
+    private void fetch( Iterator<DataObject> iterateDataObjects )
+    {
+        int nBatchSize = _dataSource.getBatchSize( );
+        Batch batch = new Batch( );
+        long lStart = System.currentTimeMillis( );
+        while ( _failure.get( ) == null && iterateDataObjects.hasNext( ) )
+        {
+            DataObject dataObject = iterateDataObjects.next( );
+            batch._listIdResource.add( dataObject.getId( ) );
+            batch._listDataObject.add( dataObject );
+            if ( ( batch._listDataObject.size( ) == nBatchSize ) || !iterateDataObjects.hasNext( ) )
+            {
+                _dataSource.getIndexingStatus( ).addFetchDuration( System.currentTimeMillis( ) - lStart );
+                put( _queueFetched, batch );
+                batch = new Batch( );
+                lStart = System.currentTimeMillis( );
+            }
+        }
+    }
+
+    /**
+     * Enrich stage : set the documents ids and provide the external attributes
+     * 
+     * @param batch
+     *            the batch
+     */
+    private void enrich( Batch batch )
+    {
+        DataSourceService.completeDataObjectWithFullData( _dataSource, batch._listDataObject );
+    }
+
+    /**
+     * Serialize stage : build the bulk bodies, closed when they reach either the batch size or the byte budget of the data source. The data objects are
+     * released once serialized.
+     * 
+     * @param batch
+     *            the batch
+     * @throws ElasticClientException
+     *             if an object can't be serialized
+     */
+    private void serialize( Batch batch ) throws ElasticClientException
+    {
+        BulkBodyBuilder builder = new BulkBodyBuilder( _dataSource.getBatchSize( ), _dataSource.getBulkMaxBytes( ) );
+        for ( int i = 0; i < batch._listDataObject.size( ); i++ )
+        {
+            addBody( batch, builder.add( BulkIndexer.index( _dataSource, batch._listIdResource.get( i ), batch._listDataObject.get( i ) ) ) );
+        }
+        addBody( batch, builder.flush( ) );
+        batch._listDataObject = null;
+    }
+
+    /**
+     * Add a closed body to a batch
+     * 
+     * @param batch
+     *            the batch
+     * @param body
+     *            the closed body, may be null
+     */
+    private static void addBody( Batch batch, BulkBody body )
+    {
+        if ( body != null )
+        {
+            batch._listBodies.add( body );
+        }
+    }
+
+    /**
+     * Send stage : post the bulk bodies and update the progress of the indexing once acknowledged. Blocks while all the bulk requests slots of the data
+     * source are busy.
+     * 
+     * @param batch
+     *            the batch
+     * @throws ElasticClientException
+     *             if a bulk request has failed
+     */
+    private void send( Batch batch ) throws ElasticClientException
+    {
+        for ( BulkBody body : batch._listBodies )
+        {
+            String strLastIdResource = body.getItems( ).get( body.size( ) - 1 ).getIdResource( );
+            _dispatcher.submit( ( ) -> post( body ), result -> {
+                IndexerActionHome.removeByIdResourceList( result.getSucceededIdResources( ), _dataSource.getId( ) );
+                BulkIndexer.reportFailures( _dataSource, result );
+                _nCount.addAndGet( result.getSucceeded( ).size( ) );
+                int nCountIndexed;
+                // The count is shared by the pipelines of the partitions : it is incremented and reported atomically so that the progress never goes back
+                synchronized( _dataSource.getIndexingStatus( ) )
+                {
+                    nCountIndexed = _nCountIndexed.addAndGet( result.getSucceeded( ).size( ) );
+                    DataSourceService.updateIndexingStatus( _dataSource, nCountIndexed );
+                }
+                if ( ( _checkpoint != null ) && !_bCheckpointFrozen )
+                {
+                    if ( result.getFailures( ).isEmpty( ) )
+                    {
+                        // The bodies are acknowledged in order : all the resources up to the last one of this body are done
+                        _checkpoint.setLastIdResource( strLastIdResource );
+                        _checkpoint.setNbIndexed( nCountIndexed );
+                        IndexingCheckpointHome.update( _checkpoint );
+                    }
+                    else
+                    {
+                        _bCheckpointFrozen = true;
+                    }
+                }
+            } );
+        }
+        batch._listBodies.clear( );
+    }
+
+    /**
+     * Post a bulk body
+     * 
+     * @param body
+     *            the bulk body
+     * @return the acknowledged and the rejected items of the body
+     * @throws ElasticClientException
+     *             if the bulk request fails
+     */
+    private BulkResult post( BulkBody body ) throws ElasticClientException
+    {
+        long lStart = System.currentTimeMillis( );
+        try
+        {
+            return BulkSender.send( _client, _strIndexName, body );
+        }
+        finally
+        {
+            _dataSource.getIndexingStatus( ).addSendDuration( System.currentTimeMillis( ) - lStart );
+        }
+    }
+
+    /**
+     * Start a stage thread. Once a stage has failed, the following batches are drained without being processed so that no thread stays blocked.
+     * 
+     * @param queueIn
+     *            the queue of the batches to process
+     * @param queueOut
+     *            the queue of the processed batches, null for the last stage
+     * @param stage
+     *            the processing of the stage
+     * @param timer
+     *            the consumer of the time spent by the stage
+     * @return the started thread
+     */
+    private Thread startStage( BlockingQueue<Batch> queueIn, BlockingQueue<Batch> queueOut, Stage stage, LongConsumer timer )
+    {
+        Thread thread = _threadFactory.newThread( ( ) -> {
+            try
+            {
+                Batch batch = queueIn.take( );
+                while ( batch != END_OF_BATCHES )
+                {
+                    process( batch, queueOut, stage, timer );
+                    batch = queueIn.take( );
+                }
+            }
+            catch( InterruptedException e )
+            {
+                fail( e );
+                Thread.currentThread( ).interrupt( );
+            }
+            finally
+            {
+                if ( queueOut != null )
+                {
+                    putEndOfBatches( queueOut );
+                }
+            }
+        } );
+        thread.start( );
+        return thread;
+    }
+
+    /**
+     * Process a batch in a stage and forward it to the next one
+     * 
+     * @param batch
+     *            the batch
+     * @param queueOut
+     *            the queue of the processed batches, null for the last stage
+     * @param stage
+     *            the processing of the stage
+     * @param timer
+     *            the consumer of the time spent by the stage
+     */
+    private void process( Batch batch, BlockingQueue<Batch> queueOut, Stage stage, LongConsumer timer )
+    {
+        if ( _failure.get( ) != null )
+        {
+            return;
+        }
+        long lStart = System.currentTimeMillis( );
+        try
+        {
+            stage.process( batch );
+        }
+        catch( Exception e )
+        {
+            fail( e );
+            return;
+        }
+        timer.accept( System.currentTimeMillis( ) - lStart );
+        if ( queueOut != null )
+        {
+            put( queueOut, batch );
+        }
+    }
+
+    /**
+     * Put a batch into a queue, waiting for space to become available
+     * 
+     * @param queue
+     *            the queue
+     * @param batch
+     *            the batch
+     */
+    private void put( BlockingQueue<Batch> queue, Batch batch )
+    {
+        try
+        {
+            queue.put( batch );
+        }
+        catch( InterruptedException e )
+        {
+            fail( e );
+            Thread.currentThread( ).interrupt( );
+        }
+    }
+
+    /**
+     * Signal the end of the batches to the next stage, even if the current thread has been interrupted, so that the next stage can terminate. Once the
+     * pipeline has failed, the batches still waiting are dropped so that a stopped next stage can't keep the queue full.
+     * 
+     * @param queue
+     *            the queue
+     */
+    private void putEndOfBatches( BlockingQueue<Batch> queue )
+    {
+        boolean bInterrupted = Thread.interrupted( );
+        try
+        {
+            if ( _failure.get( ) != null )
+            {
+                queue.clear( );
+            }
+            queue.put( END_OF_BATCHES );
+        }
+        catch( InterruptedException e )
+        {
+            bInterrupted = true;
+        }
+        finally
+        {
+            if ( bInterrupted )
+            {
+                Thread.currentThread( ).interrupt( );
+            }
+        }
+    }
+
+    /**
+     * Record the first failure of the pipeline
+     * 
+     * @param e
+     *            the failure
+     */
+    private void fail( Exception e )
+    {
+        if ( _failure.compareAndSet( null, e ) )
+        {
+            AppLogService.error( "ElasticData indexing pipeline error for DataSource " + _dataSource.getName( ), e );
+        }
+    }
+
+    /**
+     * Processing of a stage
+     */
+    @FunctionalInterface
+    private interface Stage
+    {
+        /**
+         * Process a batch
+         * 
+         * @param batch
+         *            the batch
+         * @throws Exception
+         *             if the processing fails
+         */
+        void process( Batch batch ) throws Exception;
+    }
+
+    /**
+     * A batch of data objects going through the pipeline
+     */
+    private static final class Batch
+    {
+        private final List<String> _listIdResource = new ArrayList<>( );
+        private final List<BulkBody> _listBodies = new ArrayList<>( );
+        private List<DataObject> _listDataObject = new ArrayList<>( );
+    }
+}
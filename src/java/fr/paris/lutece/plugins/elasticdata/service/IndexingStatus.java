@@ -33,14 +33,27 @@
  */
 package fr.paris.lutece.plugins.elasticdata.service;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class IndexingStatus
 {
+    private static final int MAX_FAILURES_REPORTED = 100;
+
     private int _nNbTotalObj;
     private int _nCurrentNbIndexedObj;
     private AtomicBoolean _bIsRunning = new AtomicBoolean( );
+    private final AtomicBoolean _bIsIncrementalRunning = new AtomicBoolean( );
     private StringBuilder _sbLogs;
+    private final AtomicLong _lFetchDuration = new AtomicLong( );
+    private final AtomicLong _lEnrichDuration = new AtomicLong( );
+    private final AtomicLong _lSerializeDuration = new AtomicLong( );
+    private final AtomicLong _lSendDuration = new AtomicLong( );
+    private final AtomicInteger _nNbFailedObj = new AtomicInteger( );
+    private final List<String> _listFailures = new ArrayList<>( );
 
     /**
      * Get the total number of data objects to index
@@ -106,6 +119,16 @@ public class IndexingStatus
         _bIsRunning = bIsRunning;
     }
 
+    /**
+     * Returns the guard of the incremental indexing runs, distinct from the one of the full indexing runs
+     * 
+     * @return true while an incremental indexing is running
+     */
+    public AtomicBoolean getIsIncrementalRunning( )
+    {
+        return _bIsIncrementalRunning;
+    }
+
     /**
      * Get the percent of indexed objects
      * 
@@ -160,6 +183,132 @@ public class IndexingStatus
         _sbLogs = sbLogs;
     }
 
+    /**
+     * Returns the time spent fetching the data objects
+     * 
+     * @return the duration in ms
+     */
+    public long getFetchDuration( )
+    {
+        return _lFetchDuration.get( );
+    }
+
+    /**
+     * Add time spent fetching the data objects
+     * 
+     * @param lDuration
+     *            the duration in ms
+     */
+    public void addFetchDuration( long lDuration )
+    {
+        _lFetchDuration.addAndGet( lDuration );
+    }
+
+    /**
+     * Returns the time spent providing the external attributes of the data objects
+     * 
+     * @return the duration in ms
+     */
+    public long getEnrichDuration( )
+    {
+        return _lEnrichDuration.get( );
+    }
+
+    /**
+     * Add time spent providing the external attributes of the data objects
+     * 
+     * @param lDuration
+     *            the duration in ms
+     */
+    public void addEnrichDuration( long lDuration )
+    {
+        _lEnrichDuration.addAndGet( lDuration );
+    }
+
+    /**
+     * Returns the time spent serializing the bulk requests
+     * 
+     * @return the duration in ms
+     */
+    public long getSerializeDuration( )
+    {
+        return _lSerializeDuration.get( );
+    }
+
+    /**
+     * Add time spent serializing the bulk requests
+     * 
+     * @param lDuration
+     *            the duration in ms
+     */
+    public void addSerializeDuration( long lDuration )
+    {
+        _lSerializeDuration.addAndGet( lDuration );
+    }
+
+    /**
+     * Returns the time spent sending the bulk requests to Elasticsearch
+     * 
+     * @return the duration in ms
+     */
+    public long getSendDuration( )
+    {
+        return _lSendDuration.get( );
+    }
+
+    /**
+     * Add time spent sending the bulk requests to Elasticsearch
+     * 
+     * @param lDuration
+     *            the duration in ms
+     */
+    public void addSendDuration( long lDuration )
+    {
+        _lSendDuration.addAndGet( lDuration );
+    }
+
+    /**
+     * Returns the number of documents permanently rejected by Elasticsearch
+     * 
+     * @return the number of rejected documents
+     */
+    public int getNbFailedObj( )
+    {
+        return _nNbFailedObj.get( );
+    }
+
+    /**
+     * Returns the failures of the first rejected documents
+     * 
+     * @return the failures, one per document
+     */
+    public List<String> getFailures( )
+    {
+        synchronized( _listFailures )
+        {
+            return new ArrayList<>( _listFailures );
+        }
+    }
+
+    /**
+     * Report a document permanently rejected by Elasticsearch. Only the first failures are kept.
+     * 
+     * @param strIdDocument
+     *            the id of the document
+     * @param strError
+     *            the error reported by Elasticsearch
+     */
+    public void addFailure( String strIdDocument, String strError )
+    {
+        if ( _nNbFailedObj.incrementAndGet( ) <= MAX_FAILURES_REPORTED )
+        {
+            synchronized( _listFailures )
+            {
+                _listFailures.add( strIdDocument + " : " + strError );
+            }
+        }
+    }
+
     /**
      * Reset the Indexing Status
      */
@@ -168,6 +317,15 @@ public class IndexingStatus
 
         _nNbTotalObj = 0;
         _nCurrentNbIndexedObj = 0;
+        _lFetchDuration.set( 0 );
+        _lEnrichDuration.set( 0 );
+        _lSerializeDuration.set( 0 );
+        _lSendDuration.set( 0 );
+        _nNbFailedObj.set( 0 );
+        synchronized( _listFailures )
+        {
+            _listFailures.clear( );
+        }
         if ( _sbLogs != null )
         {
             _sbLogs.setLength( 0 );
@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import fr.paris.lutece.plugins.elasticdata.business.DataObject;
+import fr.paris.lutece.plugins.elasticdata.business.DataSource;
+import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.plugins.elasticdata.service.DataSourceIncrementalService;
+import fr.paris.lutece.plugins.elasticdata.service.DataSourceService;
+import fr.paris.lutece.plugins.elasticdata.service.IndexGeneration;
+import fr.paris.lutece.plugins.elasticdata.service.IndexingExecutors;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.BeforeDestroyed;
+import jakarta.enterprise.event.Observes;
+
+/**
+ * Asynchronous indexing of single documents. The documents submitted by all the threads are gathered in micro-batches, closed when they reach the batch size
+ * or when the first document has waited for the linger time, and sent as one bulk request per target index. The future of each document is completed from
+ * the result of its own bulk action. When the queue of the documents waiting to be sent is full, when a bulk request fails and when the application is
+ * stopped, the documents are handed over to the incremental indexing queue of their data source instead, and their future is completed at once. So are
+ * the documents of a data source whose new index generation is being loaded, the incremental indexing writing them to both indices.
+ */
+@ApplicationScoped
+public class AsyncBulkIndexer
+{
+    private static final String PROPERTY_BATCH_SIZE = "elasticdata.async_batch_size";
+    private static final int BATCH_SIZE = AppPropertiesService.getPropertyInt( PROPERTY_BATCH_SIZE, 500 );
+    private static final String PROPERTY_LINGER = "elasticdata.async_linger";
+    private static final long LINGER = AppPropertiesService.getPropertyInt( PROPERTY_LINGER, 50 );
+    private static final String PROPERTY_QUEUE_CAPACITY = "elasticdata.async_queue_capacity";
+    private static final int QUEUE_CAPACITY = AppPropertiesService.getPropertyInt( PROPERTY_QUEUE_CAPACITY, 10000 );
+    private static final long SHUTDOWN_TIMEOUT = 5000L;
+
+    private static final BlockingQueue<PendingDocument> _queue = new LinkedBlockingQueue<>( Math.max( 1, QUEUE_CAPACITY ) );
+    private static Thread _sender;
+    private static volatile boolean _bShutdown;
+
+    /**
+     * Submit a document to index
+     * 
+     * @param dataSource
+     *            the data source
+     * @param dataObject
+     *            the data object
+     * @return the future completed once the document has been acknowledged or handed over to the incremental indexing queue, or completed exceptionally
+     *         if it has been rejected
+     */
+    public static CompletableFuture<Void> index( DataSource dataSource, DataObject dataObject )
+    {
+        CompletableFuture<Void> future = new CompletableFuture<>( );
+        PendingDocument document = new PendingDocument( dataSource, dataObject, future );
+        if ( _bShutdown || ( IndexGeneration.getLoadingIndexName( dataSource ) != null ) )
+        {
+            handOver( document );
+            return future;
+        }
+        start( );
+        if ( !_queue.offer( document ) )
+        {
+            AppLogService.debug( "ElasticData asynchronous indexing queue full, document {} of DataSource {} added to the incremental indexing queue",
+                    dataObject.getId( ), dataSource.getId( ) );
+            handOver( document );
+        }
+        else
+            if ( _bShutdown )
+            {
+                // The application has been stopped meanwhile : the queue is not sent anymore
+                drain( );
+            }
+        return future;
+    }
+
+    /**
+     * Stop the sender thread and hand over the documents waiting to be sent to the incremental indexing queue before the application is stopped
+     * 
+     * @param context
+     *            the application context
+     */
+    public void onShutdown( @Observes @BeforeDestroyed( ApplicationScoped.class ) Object context )
+    {
+        Thread sender;
+        synchronized( AsyncBulkIndexer.class )
+        {
+            _bShutdown = true;
+            sender = _sender;
+        }
+        if ( sender != null )
+        {
+            sender.interrupt( );
+            try
+            {
+                sender.join( SHUTDOWN_TIMEOUT );
+            }
+            catch( InterruptedException e )
+            {
+                Thread.currentThread( ).interrupt( );
+            }
+        }
+        drain( );
+    }
+
+    /**
+     * Start the sender thread on first use
+     */
+    private static synchronized void start( )
+    {
+        if ( ( _sender == null ) && !_bShutdown )
+        {
+            _sender = IndexingExecutors.getThreadFactory( ).newThread( AsyncBulkIndexer::run );
+            _sender.start( );
+        }
+    }
+
+    /**
+     * Loop of the sender thread
+     */
+    private static void run( )
+    {
+        try
+        {
+            while ( !Thread.currentThread( ).isInterrupted( ) )
+            {
+                List<PendingDocument> listBatch = new ArrayList<>( );
+                try
+                {
+                    take( listBatch );
+                }
+                catch( InterruptedException e )
+                {
+                    Thread.currentThread( ).interrupt( );
+                    listBatch.forEach( AsyncBulkIndexer::handOver );
+                    break;
+                }
+                send( listBatch );
+            }
+        }
+        finally
+        {
+            synchronized( AsyncBulkIndexer.class )
+            {
+                _sender = null;
+            }
+            // The documents left are sent by the next sender thread, or handed over if the application is stopped
+            if ( _bShutdown )
+            {
+                drain( );
+            }
+            else
+                if ( !_queue.isEmpty( ) )
+                {
+                    start( );
+                }
+        }
+    }
+
+    /**
+     * Take the next micro-batch, waiting for its first document
+     * 
+     * @param listBatch
+     *            the list filled with the documents of the micro-batch
+     * @throws InterruptedException
+     *             if the sender thread is interrupted
+     */
+    private static void take( List<PendingDocument> listBatch ) throws InterruptedException
+    {
+        listBatch.add( _queue.take( ) );
+        long lDeadline = System.nanoTime( ) + TimeUnit.MILLISECONDS.toNanos( LINGER );
+        while ( listBatch.size( ) < BATCH_SIZE )
+        {
+            PendingDocument document = _queue.poll( lDeadline - System.nanoTime( ), TimeUnit.NANOSECONDS );
+            if ( document == null )
+            {
+                break;
+            }
+            listBatch.add( document );
+        }
+    }
+
+    /**
+     * Hand over the documents waiting to be sent to the incremental indexing queue
+     */
+    private static void drain( )
+    {
+        List<PendingDocument> listDocuments = new ArrayList<>( );
+        _queue.drainTo( listDocuments );
+        listDocuments.forEach( AsyncBulkIndexer::handOver );
+    }
+
+    /**
+     * Hand over a document to the incremental indexing queue of its data source and complete its future
+     * 
+     * @param document
+     *            the pending document
+     */
+    private static void handOver( PendingDocument document )
+    {
+        try
+        {
+            DataSourceIncrementalService.addTask( document._dataSource.getId( ), document._dataObject.getId( ), IndexerAction.TASK_CREATE );
+            document._future.complete( null );
+        }
+        catch( RuntimeException e )
+        {
+            AppLogService.error( "ElasticData unable to add the document " + document._dataObject.getId( ) + " to the incremental indexing queue", e );
+            document._future.completeExceptionally( e );
+        }
+    }
+
+    /**
+     * Send a micro-batch, with one bulk request per data source
+     * 
+     * @param listBatch
+     *            the pending documents
+     */
+    private static void send( List<PendingDocument> listBatch )
+    {
+        Map<DataSource, List<PendingDocument>> mapByDataSource = new LinkedHashMap<>( );
+        for ( PendingDocument document : listBatch )
+        {
+            mapByDataSource.computeIfAbsent( document._dataSource, dataSource -> new ArrayList<>( ) ).add( document );
+        }
+        for ( Map.Entry<DataSource, List<PendingDocument>> entry : mapByDataSource.entrySet( ) )
+        {
+            try
+            {
+                send( entry.getKey( ), entry.getValue( ) );
+            }
+            catch( ElasticClientException | RuntimeException e )
+            {
+                AppLogService.error( "ElasticData asynchronous indexing error for DataSource " + entry.getKey( ).getName( )
+                        + ", the documents not sent are added to the incremental indexing queue", e );
+                for ( PendingDocument document : entry.getValue( ) )
+                {
+                    // The documents of the bodies already acknowledged or rejected are done
+                    if ( !document._future.isDone( ) )
+                    {
+                        handOver( document );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Send the pending documents of a data source as bulk requests closed at the batch size or the byte budget of the data source, and complete their
+     * futures
+     * 
+     * @param dataSource
+     *            the data source
+     * @param listDocuments
+     *            the pending documents
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    private static void send( DataSource dataSource, List<PendingDocument> listDocuments ) throws ElasticClientException
+    {
+        List<DataObject> listDataObjects = new ArrayList<>( listDocuments.size( ) );
+        List<String> listIdResource = new ArrayList<>( listDocuments.size( ) );
+        for ( PendingDocument document : listDocuments )
+        {
+            listIdResource.add( document._dataObject.getId( ) );
+            listDataObjects.add( document._dataObject );
+        }
+        DataSourceService.completeDataObjectWithFullData( dataSource, listDataObjects );
+
+        BulkBodyBuilder builder = new BulkBodyBuilder( dataSource.getBatchSize( ), dataSource.getBulkMaxBytes( ) );
+        List<BulkBody> listBodies = new ArrayList<>( );
+        Map<BulkItem, CompletableFuture<Void>> mapFutures = new IdentityHashMap<>( );
+        for ( int i = 0; i < listDocuments.size( ); i++ )
+        {
+            PendingDocument document = listDocuments.get( i );
+            try
+            {
+                BulkItem item = BulkIndexer.index( dataSource, listIdResource.get( i ), document._dataObject );
+                addBody( listBodies, builder.add( item ) );
+                mapFutures.put( item, document._future );
+            }
+            catch( ElasticClientException e )
+            {
+                document._future.completeExceptionally( e );
+            }
+        }
+        addBody( listBodies, builder.flush( ) );
+
+        for ( BulkBody body : listBodies )
+        {
+            send( dataSource, body, mapFutures );
+        }
+    }
+
+    /**
+     * Send a bulk body and complete the futures of its documents
+     * 
+     * @param dataSource
+     *            the data source
+     * @param body
+     *            the bulk body
+     * @param mapFutures
+     *            the futures of the documents by item
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    private static void send( DataSource dataSource, BulkBody body, Map<BulkItem, CompletableFuture<Void>> mapFutures ) throws ElasticClientException
+    {
+        BulkResult result = BulkSender.send( DataSourceService.getRestClient( ), dataSource.getTargetIndexName( ), body );
+        for ( BulkItem item : result.getSucceeded( ) )
+        {
+            mapFutures.get( item ).complete( null );
+        }
+        BulkIndexer.reportFailures( dataSource, result );
+        for ( BulkFailure failure : result.getFailures( ) )
+        {
+            mapFutures.get( failure.getItem( ) ).completeExceptionally(
+                    new ElasticClientException( "ElasticData document " + failure.getItem( ).getIdDocument( ) + " rejected : " + failure.getError( ), null ) );
+        }
+    }
+
+    /**
+     * Add a closed body to the bodies to send
+     * 
+     * @param listBodies
+     *            the bodies to send
+     * @param body
+     *            the closed body, may be null
+     */
+    private static void addBody( List<BulkBody> listBodies, BulkBody body )
+    {
+        if ( body != null )
+        {
+            listBodies.add( body );
+        }
+    }
+
+    /**
+     * A document waiting to be sent
+     */
+    private static final class PendingDocument
+    {
+        private final DataSource _dataSource;
+        private final DataObject _dataObject;
+        private final CompletableFuture<Void> _future;
+
+        /**
+         * Constructor
+         * 
+         * @param dataSource
+         *            the data source
+         * @param dataObject
+         *            the data object
+         * @param future
+         *            the future of the document
+         */
+        private PendingDocument( DataSource dataSource, DataObject dataObject, CompletableFuture<Void> future )
+        {
+            _dataSource = dataSource;
+            _dataObject = dataObject;
+            _future = future;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NDJSON body of a bulk request. The body is never built as a whole : its serialized actions are written one after the other to the output stream of the
+ * request, sent with chunked transfer.
+ */
+public class BulkBody
+{
+    private final List<BulkItem> _listItems;
+    private long _lSizeInBytes;
+
+    /**
+     * Constructor
+     */
+    public BulkBody( )
+    {
+        _listItems = new ArrayList<>( );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param listItems
+     *            the items of the body
+     */
+    public BulkBody( List<BulkItem> listItems )
+    {
+        _listItems = new ArrayList<>( listItems.size( ) );
+        for ( BulkItem item : listItems )
+        {
+            add( item );
+        }
+    }
+
+    /**
+     * Add an item to the body
+     * 
+     * @param item
+     *            the item
+     */
+    public final void add( BulkItem item )
+    {
+        _listItems.add( item );
+        _lSizeInBytes += item.getSizeInBytes( );
+    }
+
+    /**
+     * Returns the number of actions of the body
+     * 
+     * @return the number of actions
+     */
+    public int size( )
+    {
+        return _listItems.size( );
+    }
+
+    /**
+     * Returns true if the body has no action
+     * 
+     * @return true if empty
+     */
+    public boolean isEmpty( )
+    {
+        return _listItems.isEmpty( );
+    }
+
+    /**
+     * Returns the size of the serialized body
+     * 
+     * @return the size in bytes
+     */
+    public long getSizeInBytes( )
+    {
+        return _lSizeInBytes;
+    }
+
+    /**
+     * Returns the items of the body, in the order of the actions
+     * 
+     * @return the items
+     */
+    public List<BulkItem> getItems( )
+    {
+        return _listItems;
+    }
+
+    /**
+     * Write the serialized actions of the body, one after the other, without building the whole body in memory
+     * 
+     * @param out
+     *            the output stream of the request
+     * @throws IOException
+     *             if the body can't be written
+     */
+    public void writeTo( OutputStream out ) throws IOException
+    {
+        for ( BulkItem item : _listItems )
+        {
+            out.write( item.getData( ) );
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+/**
+ * Builds bulk bodies closed when they reach either a maximum number of actions or a byte budget
+ */
+public class BulkBodyBuilder
+{
+    private final int _nMaxActions;
+    private final long _lMaxBytes;
+    private BulkBody _body = new BulkBody( );
+
+    /**
+     * Constructor
+     * 
+     * @param nMaxActions
+     *            the maximum number of actions of a body
+     * @param lMaxBytes
+     *            the maximum size of a body in bytes
+     */
+    public BulkBodyBuilder( int nMaxActions, long lMaxBytes )
+    {
+        _nMaxActions = Math.max( 1, nMaxActions );
+        _lMaxBytes = lMaxBytes;
+    }
+
+    /**
+     * Add an item to the current body. The current body is closed first if the item doesn't fit in it. An item larger than the byte budget is sent alone.
+     * 
+     * @param item
+     *            the item
+     * @return the closed body, or null if the current body is still open
+     */
+    public BulkBody add( BulkItem item )
+    {
+        BulkBody bodyClosed = null;
+        if ( !_body.isEmpty( ) && ( ( _body.size( ) >= _nMaxActions ) || ( _body.getSizeInBytes( ) + item.getSizeInBytes( ) > _lMaxBytes ) ) )
+        {
+            bodyClosed = _body;
+            _body = new BulkBody( );
+        }
+        _body.add( item );
+        return bodyClosed;
+    }
+
+    /**
+     * Close the current body
+     * 
+     * @return the closed body, or null if it was empty
+     */
+    public BulkBody flush( )
+    {
+        if ( _body.isEmpty( ) )
+        {
+            return null;
+        }
+        BulkBody bodyClosed = _body;
+        _body = new BulkBody( );
+        return bodyClosed;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import fr.paris.lutece.plugins.elasticdata.service.IndexingExecutors;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+
+/**
+ * Keeps up to N bulk requests in flight. The producer is blocked when all the slots are busy, and the responses are handed to their callbacks in the order
+ * of submission, in the producer thread, so that progress counters stay consistent.
+ *
+ * @param <T>
+ *            the type of the responses
+ */
+public class BulkDispatcher<T> implements AutoCloseable
+{
+    private final int _nMaxInFlight;
+    private final ExecutorService _executor;
+    private final Deque<InFlightRequest<T>> _dequeInFlight = new ArrayDeque<>( );
+
+    /**
+     * Constructor
+     * 
+     * @param nMaxInFlight
+     *            the maximum number of requests in flight. With 1, requests are sent synchronously by the producer thread
+     * @param threadFactory
+     *            the factory of the sender threads
+     */
+    public BulkDispatcher( int nMaxInFlight, ThreadFactory threadFactory )
+    {
+        _nMaxInFlight = Math.max( 1, nMaxInFlight );
+        _executor = ( _nMaxInFlight > 1 ) ? IndexingExecutors.newExecutor( _nMaxInFlight, threadFactory ) : null;
+    }
+
+    /**
+     * Submit a request. Blocks while all the slots are busy.
+     * 
+     * @param request
+     *            the request
+     * @param callback
+     *            the callback receiving the response
+     * @throws ElasticClientException
+     *             if a previous request, or this one when sent synchronously, has failed
+     */
+    public void submit( BulkCall<T> request, BulkCallback<T> callback ) throws ElasticClientException
+    {
+        if ( _executor == null )
+        {
+            callback.onResponse( request.call( ) );
+            return;
+        }
+        while ( _dequeInFlight.size( ) >= _nMaxInFlight )
+        {
+            completeOldest( );
+        }
+        _dequeInFlight.addLast( new InFlightRequest<>( _executor.submit( request::call ), callback ) );
+    }
+
+    /**
+     * Wait for all the requests in flight
+     * 
+     * @throws ElasticClientException
+     *             if a request has failed
+     */
+    public void flush( ) throws ElasticClientException
+    {
+        while ( !_dequeInFlight.isEmpty( ) )
+        {
+            completeOldest( );
+        }
+    }
+
+    /**
+     * Cancel the requests still in flight and release the sender threads
+     */
+    @Override
+    public void close( )
+    {
+        for ( InFlightRequest<T> inFlight : _dequeInFlight )
+        {
+            inFlight._future.cancel( true );
+        }
+        _dequeInFlight.clear( );
+        if ( _executor != null )
+        {
+            _executor.shutdownNow( );
+        }
+    }
+
+    /**
+     * Wait for the oldest request and hand its response to its callback
+     * 
+     * @throws ElasticClientException
+     *             if the request has failed
+     */
+    private void completeOldest( ) throws ElasticClientException
+    {
+        InFlightRequest<T> inFlight = _dequeInFlight.pollFirst( );
+        T response;
+        try
+        {
+            response = inFlight._future.get( );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new ElasticClientException( "ElasticData bulk request interrupted", e );
+        }
+        catch( ExecutionException e )
+        {
+            if ( e.getCause( ) instanceof ElasticClientException )
+            {
+                throw (ElasticClientException) e.getCause( );
+            }
+            throw new ElasticClientException( "ElasticData bulk request error", e );
+        }
+        inFlight._callback.onResponse( response );
+    }
+
+    /**
+     * A bulk request
+     *
+     * @param <T>
+     *            the type of the response
+     */
+    @FunctionalInterface
+    public interface BulkCall<T>
+    {
+        /**
+         * Send the request
+         * 
+         * @return the response
+         * @throws ElasticClientException
+         *             if the request fails
+         */
+        T call( ) throws ElasticClientException;
+    }
+
+    /**
+     * Callback receiving the response of a bulk request
+     *
+     * @param <T>
+     *            the type of the response
+     */
+    @FunctionalInterface
+    public interface BulkCallback<T>
+    {
+        /**
+         * Handle the response
+         * 
+         * @param response
+         *            the response
+         * @throws ElasticClientException
+         *             if the response can't be handled
+         */
+        void onResponse( T response ) throws ElasticClientException;
+    }
+
+    /**
+     * A request in flight and its callback
+     *
+     * @param <T>
+     *            the type of the response
+     */
+    private static final class InFlightRequest<T>
+    {
+        private final Future<T> _future;
+        private final BulkCallback<T> _callback;
+
+        private InFlightRequest( Future<T> future, BulkCallback<T> callback )
+        {
+            _future = future;
+            _callback = callback;
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.stream.Collectors;
+
+import fr.paris.lutece.plugins.elasticdata.business.DataObject;
+import fr.paris.lutece.plugins.elasticdata.business.DataSource;
+import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.plugins.elasticdata.service.DataSourceService;
+import fr.paris.lutece.plugins.elasticdata.service.bulk.BulkDispatcher.BulkCallback;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+
+/**
+ * Indexes data objects in bulk mode. The objects are enriched by batches of the data source batch size, serialized one by one, and the bulk requests are
+ * closed when they reach either the batch size or the byte budget of the data source.
+ */
+public class BulkIndexer implements AutoCloseable
+{
+    private final DataSource _dataSource;
+    private final String _strIndexName;
+    private final ElasticRestClient _client;
+    private final BulkBodyBuilder _builder;
+    private final BulkDispatcher<BulkResult> _dispatcher;
+    private final BulkCallback<BulkResult> _acknowledge;
+    private int _nCountSent;
+
+    /**
+     * Constructor
+     * 
+     * @param dataSource
+     *            the data source
+     * @param strIndexName
+     *            the target index
+     * @param client
+     *            the Elasticsearch client
+     * @param threadFactory
+     *            the factory of the sender threads
+     * @param acknowledge
+     *            the callback called, in order, with the outcome of each body sent to Elasticsearch
+     */
+    public BulkIndexer( DataSource dataSource, String strIndexName, ElasticRestClient client, ThreadFactory threadFactory,
+            BulkCallback<BulkResult> acknowledge )
+    {
+        _dataSource = dataSource;
+        _strIndexName = strIndexName;
+        _client = client;
+        _builder = new BulkBodyBuilder( dataSource.getBatchSize( ), dataSource.getBulkMaxBytes( ) );
+        _dispatcher = new BulkDispatcher<>( dataSource.getBulkMaxInFlight( ), threadFactory );
+        _acknowledge = acknowledge;
+    }
+
+    /**
+     * Index all the objects of an iterator
+     * 
+     * @param iterateDataObjects
+     *            The iterator of objects
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    public int insert( Iterator<DataObject> iterateDataObjects ) throws ElasticClientException
+    {
+        return process( iterateDataObjects, ( strIdResource, dataObject ) -> index( _dataSource, strIdResource, dataObject ) );
+    }
+
+    /**
+     * Partially update all the objects of an iterator, creating the documents missing from the index
+     * 
+     * @param iterateDataObjects
+     *            The iterator of objects
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    public int update( Iterator<DataObject> iterateDataObjects ) throws ElasticClientException
+    {
+        return process( iterateDataObjects, ( strIdResource, dataObject ) -> update( _dataSource, strIdResource, dataObject ) );
+    }
+
+    /**
+     * Delete the documents of a list of resources
+     * 
+     * @param listIdResource
+     *            the list of resource identifiers
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    public int delete( List<String> listIdResource ) throws ElasticClientException
+    {
+        for ( String strIdResource : listIdResource )
+        {
+            add( delete( _dataSource, strIdResource ) );
+        }
+        flush( );
+        return listIdResource.size( );
+    }
+
+    /**
+     * Apply a list of indexer actions in their order. The objects of the create and modify actions of each batch are loaded at once, then the index, update
+     * and delete actions are mixed in the same bulk requests. A create or modify action whose object is not returned by the data source is skipped : it is
+     * not acknowledged, so that it is retried by a next run.
+     * 
+     * @param listActions
+     *            the indexer actions, in the order of their ids
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    public int apply( List<IndexerAction> listActions ) throws ElasticClientException
+    {
+        int nBatchSize = _dataSource.getBatchSize( );
+        int nCount = 0;
+        for ( int nFrom = 0; nFrom < listActions.size( ); nFrom += nBatchSize )
+        {
+            List<IndexerAction> listBatch = listActions.subList( nFrom, Math.min( nFrom + nBatchSize, listActions.size( ) ) );
+            Map<String, DataObject> mapDataObjects = loadDataObjects( listBatch );
+            for ( IndexerAction action : listBatch )
+            {
+                DataObject dataObject = mapDataObjects.get( action.getIdResource( ) );
+                if ( ( action.getIdTask( ) != IndexerAction.TASK_DELETE ) && ( dataObject == null ) )
+                {
+                    AppLogService.debug( "ElasticData : object {} not found in the DataSource {}, its action is left to a next run", action.getIdResource( ),
+                            _dataSource.getName( ) );
+                    continue;
+                }
+                if ( action.getIdTask( ) == IndexerAction.TASK_DELETE )
+                {
+                    add( delete( _dataSource, action.getIdResource( ) ) );
+                }
+                else
+                    if ( action.getIdTask( ) == IndexerAction.TASK_CREATE )
+                    {
+                        add( index( _dataSource, action.getIdResource( ), dataObject ) );
+                    }
+                    else
+                    {
+                        add( update( _dataSource, action.getIdResource( ), dataObject ) );
+                    }
+                nCount++;
+            }
+        }
+        flush( );
+        return nCount;
+    }
+
+    /**
+     * Load and enrich the objects of the create and modify actions of a batch
+     * 
+     * @param listBatch
+     *            the indexer actions of the batch
+     * @return the enriched objects, by id of resource
+     */
+    private Map<String, DataObject> loadDataObjects( List<IndexerAction> listBatch )
+    {
+        Map<String, DataObject> mapDataObjects = new HashMap<>( );
+        List<String> listIdResource = listBatch.stream( ).filter( action -> action.getIdTask( ) != IndexerAction.TASK_DELETE )
+                .map( IndexerAction::getIdResource ).collect( Collectors.toList( ) );
+        if ( !listIdResource.isEmpty( ) )
+        {
+            List<DataObject> listDataObjects = _dataSource.getDataObjects( listIdResource );
+            for ( DataObject dataObject : listDataObjects )
+            {
+                mapDataObjects.put( dataObject.getId( ), dataObject );
+            }
+            DataSourceService.completeDataObjectWithFullData( _dataSource, listDataObjects );
+        }
+        return mapDataObjects;
+    }
+
+    /**
+     * Enrich the objects of an iterator by batches and add their actions to the bulk requests
+     * 
+     * @param iterateDataObjects
+     *            The iterator of objects
+     * @param serializer
+     *            the serializer of the action of an enriched object
+     * @return the number of documents posted
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    private int process( Iterator<DataObject> iterateDataObjects, ItemSerializer serializer ) throws ElasticClientException
+    {
+        List<DataObject> listBatch = new ArrayList<>( );
+        List<String> listIdResource = new ArrayList<>( );
+        int nCount = 0;
+        while ( iterateDataObjects.hasNext( ) )
+        {
+            DataObject dataObject = iterateDataObjects.next( );
+            listIdResource.add( dataObject.getId( ) );
+            listBatch.add( dataObject );
+            nCount++;
+            if ( ( listBatch.size( ) == _dataSource.getBatchSize( ) ) || !iterateDataObjects.hasNext( ) )
+            {
+                DataSourceService.completeDataObjectWithFullData( _dataSource, listBatch );
+                for ( int i = 0; i < listBatch.size( ); i++ )
+                {
+                    add( serializer.serialize( listIdResource.get( i ), listBatch.get( i ) ) );
+                }
+                listIdResource.clear( );
+                listBatch.clear( );
+            }
+        }
+        flush( );
+        return nCount;
+    }
+
+    /**
+     * Add an item, posting the current bulk request if it is full
+     * 
+     * @param item
+     *            the item
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    public void add( BulkItem item ) throws ElasticClientException
+    {
+        BulkBody body = _builder.add( item );
+        if ( body != null )
+        {
+            submit( body );
+        }
+    }
+
+    /**
+     * Post the current bulk request and wait for all the requests in flight
+     * 
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    public void flush( ) throws ElasticClientException
+    {
+        BulkBody body = _builder.flush( );
+        if ( body != null )
+        {
+            submit( body );
+        }
+        _dispatcher.flush( );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close( )
+    {
+        _dispatcher.close( );
+    }
+
+    /**
+     * Serialize an index action, externally versioned if the data source uses the external versioning
+     * 
+     * @param dataSource
+     *            the data source
+     * @param strIdResource
+     *            the id of the resource
+     * @param dataObject
+     *            the enriched data object
+     * @return the item
+     * @throws ElasticClientException
+     *             if the object can't be serialized
+     */
+    public static BulkItem index( DataSource dataSource, String strIdResource, DataObject dataObject ) throws ElasticClientException
+    {
+        long lVersion = dataSource.usesExternalVersioning( ) ? dataObject.getVersion( ) : DataObject.NO_VERSION;
+        try
+        {
+            return BulkItem.index( strIdResource, dataObject.getId( ), dataObject, lVersion );
+        }
+        catch( IOException e )
+        {
+            throw new ElasticClientException( "ElasticData unable to serialize the document " + dataObject.getId( ), e );
+        }
+    }
+
+    /**
+     * Serialize an update action. The partial updates can't be externally versioned : the whole document is indexed instead if the data source uses the
+     * external versioning.
+     * 
+     * @param dataSource
+     *            the data source
+     * @param strIdResource
+     *            the id of the resource
+     * @param dataObject
+     *            the enriched data object
+     * @return the item
+     * @throws ElasticClientException
+     *             if the object can't be serialized
+     */
+    public static BulkItem update( DataSource dataSource, String strIdResource, DataObject dataObject ) throws ElasticClientException
+    {
+        if ( dataSource.usesExternalVersioning( ) )
+        {
+            return index( dataSource, strIdResource, dataObject );
+        }
+        try
+        {
+            return BulkItem.update( strIdResource, dataObject.getId( ), dataObject );
+        }
+        catch( IOException e )
+        {
+            throw new ElasticClientException( "ElasticData unable to serialize the document " + dataObject.getId( ), e );
+        }
+    }
+
+    /**
+     * Serialize a delete action
+     * 
+     * @param dataSource
+     *            the data source
+     * @param strIdResource
+     *            the id of the resource
+     * @return the item
+     * @throws ElasticClientException
+     *             if the action can't be serialized
+     */
+    public static BulkItem delete( DataSource dataSource, String strIdResource ) throws ElasticClientException
+    {
+        String strIdDocument = DataSourceService.getIdDocument( dataSource.getId( ), strIdResource );
+        try
+        {
+            return BulkItem.delete( strIdResource, strIdDocument );
+        }
+        catch( IOException e )
+        {
+            throw new ElasticClientException( "ElasticData unable to serialize the deletion of the document " + strIdDocument, e );
+        }
+    }
+
+    /**
+     * Submit a body to the dispatcher
+     * 
+     * @param body
+     *            the body
+     * @throws ElasticClientException
+     *             If a problem occurs connecting the server
+     */
+    private void submit( BulkBody body ) throws ElasticClientException
+    {
+        _dispatcher.submit( ( ) -> BulkSender.send( _client, _strIndexName, body ), result -> {
+            _acknowledge.onResponse( result );
+            reportFailures( _dataSource, result );
+            _nCountSent += result.getSucceeded( ).size( );
+            DataSourceService.updateIndexingStatus( _dataSource, _nCountSent );
+        } );
+    }
+
+    /**
+     * Report the documents permanently rejected by Elasticsearch in the indexing status of the data source
+     * 
+     * @param dataSource
+     *            the data source
+     * @param result
+     *            the outcome of a bulk body
+     */
+    public static void reportFailures( DataSource dataSource, BulkResult result )
+    {
+        for ( BulkFailure failure : result.getFailures( ) )
+        {
+            AppLogService.error( "ElasticData : document {} of DataSource {} rejected : {}", failure.getItem( ).getIdDocument( ), dataSource.getName( ),
+                    failure.getError( ) );
+            dataSource.getIndexingStatus( ).addFailure( failure.getItem( ).getIdDocument( ), failure.getError( ).toString( ) );
+        }
+    }
+
+    /**
+     * Serializer of the bulk action of an enriched data object
+     */
+    @FunctionalInterface
+    private interface ItemSerializer
+    {
+        /**
+         * Serialize the action
+         * 
+         * @param strIdResource
+         *            the id of the resource
+         * @param dataObject
+         *            the enriched data object
+         * @return the item
+         * @throws ElasticClientException
+         *             if the object can't be serialized
+         */
+        BulkItem serialize( String strIdResource, DataObject dataObject ) throws ElasticClientException;
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * An action of a bulk request, serialized once as NDJSON lines when it is created. The lines are kept until the outcome of the action is known, so that a
+ * body split or sent again is not serialized again : the memory used is bounded by the byte budget of the bodies in flight, whatever the batch size. The
+ * sources are serialized with the default settings of Jackson, as the Elastic library does for the single document requests, so that a document has the
+ * same source whichever way it is indexed.
+ */
+public class BulkItem
+{
+    // Default settings, as the mapper of the Elastic library : only the generators are configured
+    private static final ObjectMapper _mapper = new ObjectMapper( );
+    private static final String ACTION_INDEX = "index";
+    private static final String ACTION_UPDATE = "update";
+    private static final String ACTION_DELETE = "delete";
+    private static final String FIELD_ID = "_id";
+    private static final String FIELD_DOC = "doc";
+    private static final String FIELD_DOC_AS_UPSERT = "doc_as_upsert";
+    private static final String FIELD_VERSION = "version";
+    private static final String FIELD_VERSION_TYPE = "version_type";
+    private static final String VERSION_TYPE_EXTERNAL_GTE = "external_gte";
+    private static final int NEW_LINE = '\n';
+    private static final int BUFFER_INITIAL_SIZE = 8192;
+    private static final int BUFFER_MAX_RETAINED_SIZE = 1048576;
+
+    // Serialization buffer reused by the documents serialized by a same thread
+    private static final ThreadLocal<ByteArrayOutputStream> _buffer = ThreadLocal.withInitial( ( ) -> new ByteArrayOutputStream( BUFFER_INITIAL_SIZE ) );
+
+    private final String _strIdResource;
+    private final String _strIdDocument;
+    private final byte [ ] _data;
+    private final boolean _bVersioned;
+
+    /**
+     * Constructor
+     * 
+     * @param strIdResource
+     *            the id of the resource
+     * @param strIdDocument
+     *            the id of the document
+     * @param data
+     *            the serialized lines of the action
+     * @param bVersioned
+     *            true for an externally versioned index action
+     */
+    private BulkItem( String strIdResource, String strIdDocument, byte [ ] data, boolean bVersioned )
+    {
+        _strIdResource = strIdResource;
+        _strIdDocument = strIdDocument;
+        _data = data;
+        _bVersioned = bVersioned;
+    }
+
+    /**
+     * Create an index action. An externally versioned action is rejected by Elasticsearch if the indexed document has a newer version : a same version is
+     * written again, so that a modification of the data keeping its timestamp is still indexed.
+     * 
+     * @param strIdResource
+     *            the id of the resource
+     * @param strIdDocument
+     *            the id of the document
+     * @param source
+     *            the document source
+     * @param lVersion
+     *            the external version of the document, or a negative value for an action without version
+     * @return the item
+     * @throws IOException
+     *             if the document can't be serialized
+     */
+    public static BulkItem index( String strIdResource, String strIdDocument, Object source, long lVersion ) throws IOException
+    {
+        return create( ACTION_INDEX, strIdResource, strIdDocument, source, false, lVersion );
+    }
+
+    /**
+     * Create an update action. The document is created with the partial source if it is missing from the index.
+     * 
+     * @param strIdResource
+     *            the id of the resource
+     * @param strIdDocument
+     *            the id of the document
+     * @param source
+     *            the partial document source
+     * @return the item
+     * @throws IOException
+     *             if the document can't be serialized
+     */
+    public static BulkItem update( String strIdResource, String strIdDocument, Object source ) throws IOException
+    {
+        return create( ACTION_UPDATE, strIdResource, strIdDocument, source, true, -1L );
+    }
+
+    /**
+     * Create a delete action
+     * 
+     * @param strIdResource
+     *            the id of the resource
+     * @param strIdDocument
+     *            the id of the document
+     * @return the item
+     * @throws IOException
+     *             if the action can't be serialized
+     */
+    public static BulkItem delete( String strIdResource, String strIdDocument ) throws IOException
+    {
+        return create( ACTION_DELETE, strIdResource, strIdDocument, null, false, -1L );
+    }
+
+    /**
+     * Serialize the lines of an action
+     * 
+     * @param strAction
+     *            the bulk action
+     * @param strIdResource
+     *            the id of the resource
+     * @param strIdDocument
+     *            the id of the document
+     * @param source
+     *            the document source, or null for an action without source line
+     * @param bPartial
+     *            true to wrap the source in a partial document upserted
+     * @param lVersion
+     *            the external version of the document, or a negative value for an action without version
+     * @return the item
+     * @throws IOException
+     *             if the document can't be serialized
+     */
+    private static BulkItem create( String strAction, String strIdResource, String strIdDocument, Object source, boolean bPartial, long lVersion )
+            throws IOException
+    {
+        boolean bVersioned = lVersion >= 0;
+        ByteArrayOutputStream out = _buffer.get( );
+        out.reset( );
+        try ( JsonGenerator generator = createGenerator( out ) )
+        {
+            generator.writeStartObject( );
+            generator.writeObjectFieldStart( strAction );
+            generator.writeStringField( FIELD_ID, strIdDocument );
+            if ( bVersioned )
+            {
+                generator.writeNumberField( FIELD_VERSION, lVersion );
+                generator.writeStringField( FIELD_VERSION_TYPE, VERSION_TYPE_EXTERNAL_GTE );
+            }
+            generator.writeEndObject( );
+            generator.writeEndObject( );
+        }
+        out.write( NEW_LINE );
+        if ( source == null )
+        {
+            return new BulkItem( strIdResource, strIdDocument, out.toByteArray( ), bVersioned );
+        }
+        try ( JsonGenerator generator = createGenerator( out ) )
+        {
+            if ( bPartial )
+            {
+                generator.writeStartObject( );
+                generator.writeFieldName( FIELD_DOC );
+                _mapper.writeValue( generator, source );
+                generator.writeBooleanField( FIELD_DOC_AS_UPSERT, true );
+                generator.writeEndObject( );
+            }
+            else
+            {
+                _mapper.writeValue( generator, source );
+            }
+        }
+        out.write( NEW_LINE );
+        byte [ ] data = out.toByteArray( );
+        if ( data.length > BUFFER_MAX_RETAINED_SIZE )
+        {
+            // Don't keep the buffer grown by a huge document
+            _buffer.remove( );
+        }
+        return new BulkItem( strIdResource, strIdDocument, data, bVersioned );
+    }
+
+    /**
+     * Create a generator writing to the serialization buffer, left open when the generator is closed
+     * 
+     * @param out
+     *            the serialization buffer
+     * @return the generator
+     * @throws IOException
+     *             if the generator can't be created
+     */
+    private static JsonGenerator createGenerator( ByteArrayOutputStream out ) throws IOException
+    {
+        return _mapper.getFactory( ).createGenerator( out ).configure( JsonGenerator.Feature.AUTO_CLOSE_TARGET, false );
+    }
+
+    /**
+     * Returns the id of the resource
+     * 
+     * @return the id of the resource
+     */
+    public String getIdResource( )
+    {
+        return _strIdResource;
+    }
+
+    /**
+     * Returns the id of the document
+     * 
+     * @return the id of the document
+     */
+    public String getIdDocument( )
+    {
+        return _strIdDocument;
+    }
+
+    /**
+     * Returns the serialized lines of the action
+     * 
+     * @return the data
+     */
+    public byte [ ] getData( )
+    {
+        return _data;
+    }
+
+    /**
+     * Check if the action is an externally versioned index action
+     * 
+     * @return true if the action is externally versioned
+     */
+    public boolean isVersioned( )
+    {
+        return _bVersioned;
+    }
+
+    /**
+     * Returns the size of the serialized lines
+     * 
+     * @return the size in bytes
+     */
+    public int getSizeInBytes( )
+    {
+        return _data.length;
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+
+/**
+ * Response of a bulk request. The response is parsed as a stream and only the errors of the rejected actions are kept. A delete action of a document
+ * already missing from the index is not an error, nor an externally versioned index action rejected because the index already has a newer version of
+ * the document.
+ */
+public final class BulkResponse
+{
+    /**
+     * Filter of the response keeping only what is needed to detect the rejected actions
+     */
+    public static final String FILTER_PATH = "filter_path=errors,items.*._id,items.*.status,items.*.error.type,items.*.error.reason";
+
+    private static final String FIELD_ERRORS = "errors";
+    private static final String FIELD_ITEMS = "items";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_ERROR = "error";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_REASON = "reason";
+    private static final String ACTION_INDEX = "index";
+    private static final String ACTION_DELETE = "delete";
+    private static final String ERROR_VERSION_CONFLICT = "version_conflict_engine_exception";
+    private static final int HTTP_NOT_FOUND = 404;
+    private static final int HTTP_CONFLICT = 409;
+    private static final int HTTP_MULTIPLE_CHOICES = 300;
+
+    private static final JsonFactory _factory = JsonFactory.builder( ).disable( StreamReadFeature.AUTO_CLOSE_SOURCE ).build( );
+
+    private final Map<Integer, BulkItemError> _mapErrors = new HashMap<>( );
+    private boolean _bErrors;
+
+    /**
+     * Private constructor
+     */
+    private BulkResponse( )
+    {
+    }
+
+    /**
+     * Parse the response of a bulk request
+     * 
+     * @param in
+     *            the response body
+     * @param listItems
+     *            the items of the request, in the order of the actions
+     * @return the response
+     * @throws IOException
+     *             if the response can't be parsed
+     */
+    public static BulkResponse parse( InputStream in, List<BulkItem> listItems ) throws IOException
+    {
+        BulkResponse response = new BulkResponse( );
+        try ( JsonParser parser = _factory.createParser( in ) )
+        {
+            if ( parser.nextToken( ) != JsonToken.START_OBJECT )
+            {
+                throw new IOException( "Unexpected bulk response" );
+            }
+            while ( parser.nextToken( ) == JsonToken.FIELD_NAME )
+            {
+                String strField = parser.currentName( );
+                parser.nextToken( );
+                if ( FIELD_ERRORS.equals( strField ) )
+                {
+                    response._bErrors = parser.getBooleanValue( );
+                }
+                else
+                    if ( FIELD_ITEMS.equals( strField ) && response._bErrors )
+                    {
+                        response.parseItems( parser, listItems );
+                    }
+                    else
+                    {
+                        parser.skipChildren( );
+                    }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Check if some actions have been rejected
+     * 
+     * @return true if the response reports errors
+     */
+    public boolean hasErrors( )
+    {
+        return _bErrors;
+    }
+
+    /**
+     * Returns the error of an action
+     * 
+     * @param nPosition
+     *            the position of the action in the bulk request
+     * @return the error, or null if the action has succeeded
+     */
+    public BulkItemError getError( int nPosition )
+    {
+        return _mapErrors.get( nPosition );
+    }
+
+    /**
+     * Parse the items array. Each item is an object keyed by the action type, in the order of the actions of the request.
+     * 
+     * @param parser
+     *            the parser positioned on the start of the array
+     * @param listItems
+     *            the items of the request, in the order of the actions
+     * @throws IOException
+     *             if the response can't be parsed
+     */
+    private void parseItems( JsonParser parser, List<BulkItem> listItems ) throws IOException
+    {
+        int nPosition = 0;
+        while ( parser.nextToken( ) == JsonToken.START_OBJECT )
+        {
+            int nStatus = 0;
+            String strAction = null;
+            String strType = null;
+            String strReason = null;
+            while ( parser.nextToken( ) == JsonToken.FIELD_NAME )
+            {
+                strAction = parser.currentName( );
+                parser.nextToken( );
+                while ( parser.nextToken( ) == JsonToken.FIELD_NAME )
+                {
+                    String strField = parser.currentName( );
+                    parser.nextToken( );
+                    if ( FIELD_STATUS.equals( strField ) )
+                    {
+                        nStatus = parser.getIntValue( );
+                    }
+                    else
+                        if ( FIELD_ERROR.equals( strField ) && parser.currentToken( ) == JsonToken.START_OBJECT )
+                        {
+                            while ( parser.nextToken( ) == JsonToken.FIELD_NAME )
+                            {
+                                String strErrorField = parser.currentName( );
+                                parser.nextToken( );
+                                if ( FIELD_TYPE.equals( strErrorField ) )
+                                {
+                                    strType = parser.getValueAsString( );
+                                }
+                                else
+                                    if ( FIELD_REASON.equals( strErrorField ) )
+                                    {
+                                        strReason = parser.getValueAsString( );
+                                    }
+                                    else
+                                    {
+                                        parser.skipChildren( );
+                                    }
+                            }
+                        }
+                        else
+                        {
+                            parser.skipChildren( );
+                        }
+                }
+            }
+            if ( ( nStatus >= HTTP_MULTIPLE_CHOICES ) && !isIgnored( nStatus, strAction, strType, nPosition, listItems ) )
+            {
+                _mapErrors.put( nPosition, new BulkItemError( nStatus, strType, strReason ) );
+            }
+            nPosition++;
+        }
+    }
+
+    /**
+     * Check if a rejected action is not an error : the delete of a missing document, or the versioned index of a data older than the indexed one. The
+     * version conflicts of the actions without version, such as the partial updates, stay errors.
+     * 
+     * @param nStatus
+     *            the status of the action
+     * @param strAction
+     *            the action type
+     * @param strType
+     *            the error type
+     * @param nPosition
+     *            the position of the action in the bulk request
+     * @param listItems
+     *            the items of the request, in the order of the actions
+     * @return true if the rejection is ignored
+     */
+    private static boolean isIgnored( int nStatus, String strAction, String strType, int nPosition, List<BulkItem> listItems )
+    {
+        if ( ( nStatus == HTTP_NOT_FOUND ) && ACTION_DELETE.equals( strAction ) )
+        {
+            return true;
+        }
+        return ( nStatus == HTTP_CONFLICT ) && ERROR_VERSION_CONFLICT.equals( strType ) && ACTION_INDEX.equals( strAction ) && ( nPosition < listItems.size( ) )
+                && listItems.get( nPosition ).isVersioned( );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk body once sent : the items acknowledged by Elasticsearch and the items permanently rejected
+ */
+public class BulkResult
+{
+    private final List<BulkItem> _listSucceeded = new ArrayList<>( );
+    private final List<BulkFailure> _listFailures = new ArrayList<>( );
+
+    /**
+     * Add an acknowledged item
+     * 
+     * @param item
+     *            the item
+     */
+    public void addSucceeded( BulkItem item )
+    {
+        _listSucceeded.add( item );
+    }
+
+    /**
+     * Add a rejected item
+     * 
+     * @param failure
+     *            the failure
+     */
+    public void addFailure( BulkFailure failure )
+    {
+        _listFailures.add( failure );
+    }
+
+    /**
+     * Merge the outcome of another body
+     * 
+     * @param result
+     *            the other result
+     */
+    public void addAll( BulkResult result )
+    {
+        _listSucceeded.addAll( result._listSucceeded );
+        _listFailures.addAll( result._listFailures );
+    }
+
+    /**
+     * Returns the acknowledged items
+     * 
+     * @return the items
+     */
+    public List<BulkItem> getSucceeded( )
+    {
+        return _listSucceeded;
+    }
+
+    /**
+     * Returns the ids of the resources of the acknowledged items
+     * 
+     * @return the ids of the resources
+     */
+    public List<String> getSucceededIdResources( )
+    {
+        List<String> listIdResources = new ArrayList<>( _listSucceeded.size( ) );
+        for ( BulkItem item : _listSucceeded )
+        {
+            listIdResources.add( item.getIdResource( ) );
+        }
+        return listIdResources;
+    }
+
+    /**
+     * Returns the rejected items
+     * 
+     * @return the failures
+     */
+    public List<BulkFailure> getFailures( )
+    {
+        return _listFailures;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import java.util.List;
+
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticHttpException;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.portal.service.util.AppLogService;
+import fr.paris.lutece.portal.service.util.AppPropertiesService;
+
+/**
+ * Sends bulk bodies to Elasticsearch. The response is checked item by item : only the actions rejected with a transient status are sent again, with an
+ * exponential backoff, the other rejected actions are reported as failures.
+ */
+public final class BulkSender
+{
+    private static final String PROPERTY_RETRY_MAX_ATTEMPTS = "elasticdata.bulk_retry_max_attempts";
+    private static final String PROPERTY_RETRY_INITIAL_DELAY = "elasticdata.bulk_retry_initial_delay";
+    private static final int RETRY_MAX_ATTEMPTS = AppPropertiesService.getPropertyInt( PROPERTY_RETRY_MAX_ATTEMPTS, 5 );
+    private static final long RETRY_INITIAL_DELAY = AppPropertiesService.getPropertyInt( PROPERTY_RETRY_INITIAL_DELAY, 500 );
+    private static final int HTTP_PAYLOAD_TOO_LARGE = 413;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+
+    /**
+     * Private constructor
+     */
+    private BulkSender( )
+    {
+    }
+
+    /**
+     * Post a bulk body. A body rejected as too large is split in two halves that are posted in turn.
+     * 
+     * @param client
+     *            the Elasticsearch client
+     * @param strIndex
+     *            the target index
+     * @param body
+     *            the body
+     * @return the acknowledged and the rejected items of the body
+     * @throws ElasticClientException
+     *             if the bulk request fails
+     */
+    public static BulkResult send( ElasticRestClient client, String strIndex, BulkBody body ) throws ElasticClientException
+    {
+        BulkResult result = new BulkResult( );
+        BulkBody bodyToSend = body;
+        long lDelay = RETRY_INITIAL_DELAY;
+        for ( int nAttempt = 1;; nAttempt++ )
+        {
+            List<BulkItem> listItems = bodyToSend.getItems( );
+            BulkResponse response;
+            try
+            {
+                response = client.postBulk( strIndex, BulkResponse.FILTER_PATH, bodyToSend::writeTo, in -> BulkResponse.parse( in, listItems ) );
+            }
+            catch( ElasticClientException e )
+            {
+                int nStatus = ElasticHttpException.getStatus( e );
+                if ( ( nStatus == HTTP_PAYLOAD_TOO_LARGE ) && ( bodyToSend.size( ) >= 2 ) )
+                {
+                    int nHalf = bodyToSend.size( ) / 2;
+                    AppLogService.info( "ElasticData : bulk request of {} bytes rejected as too large, splitting its {} actions", bodyToSend.getSizeInBytes( ),
+                            bodyToSend.size( ) );
+                    result.addAll( send( client, strIndex, new BulkBody( bodyToSend.getItems( ).subList( 0, nHalf ) ) ) );
+                    result.addAll( send( client, strIndex, new BulkBody( bodyToSend.getItems( ).subList( nHalf, bodyToSend.size( ) ) ) ) );
+                    return result;
+                }
+                if ( !isTransient( nStatus ) || ( nAttempt >= RETRY_MAX_ATTEMPTS ) )
+                {
+                    throw e;
+                }
+                AppLogService.info( "ElasticData : bulk request rejected with status {}, retrying in {}ms", nStatus, lDelay );
+                lDelay = backoff( lDelay );
+                continue;
+            }
+
+            BulkBody bodyRetry = new BulkBody( );
+            for ( int i = 0; i < listItems.size( ); i++ )
+            {
+                BulkItemError error = response.hasErrors( ) ? response.getError( i ) : null;
+                if ( error == null )
+                {
+                    result.addSucceeded( listItems.get( i ) );
+                }
+                else
+                    if ( isTransient( error.getStatus( ) ) && ( nAttempt < RETRY_MAX_ATTEMPTS ) )
+                    {
+                        bodyRetry.add( listItems.get( i ) );
+                    }
+                    else
+                    {
+                        result.addFailure( new BulkFailure( listItems.get( i ), error ) );
+                    }
+            }
+            if ( bodyRetry.isEmpty( ) )
+            {
+                return result;
+            }
+            AppLogService.info( "ElasticData : {} bulk actions rejected with a transient status, retrying in {}ms", bodyRetry.size( ), lDelay );
+            lDelay = backoff( lDelay );
+            bodyToSend = bodyRetry;
+        }
+    }
+
+    /**
+     * Check if a status is worth a retry
+     * 
+     * @param nStatus
+     *            the HTTP status
+     * @return true if the server is overloaded or temporarily unavailable
+     */
+    private static boolean isTransient( int nStatus )
+    {
+        return ( nStatus == HTTP_TOO_MANY_REQUESTS ) || ( nStatus == HTTP_SERVICE_UNAVAILABLE );
+    }
+
+    /**
+     * Wait before a retry
+     * 
+     * @param lDelay
+     *            the delay to wait in ms
+     * @return the delay of the next retry
+     * @throws ElasticClientException
+     *             if the thread is interrupted
+     */
+    private static long backoff( long lDelay ) throws ElasticClientException
+    {
+        try
+        {
+            Thread.sleep( lDelay );
+        }
+        catch( InterruptedException e )
+        {
+            Thread.currentThread( ).interrupt( );
+            throw new ElasticClientException( "ElasticData bulk retry interrupted", e );
+        }
+        return lDelay * 2;
+    }
+}
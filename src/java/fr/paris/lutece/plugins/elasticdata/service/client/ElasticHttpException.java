@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.client;
+
+import java.io.IOException;
+
+/**
+ * Exception raised when Elasticsearch answers with an HTTP error status
+ */
+public class ElasticHttpException extends IOException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final int _nStatus;
+    private final String _strResponse;
+
+    /**
+     * Constructor
+     * 
+     * @param nStatus
+     *            the HTTP status code
+     * @param strResponse
+     *            the response body
+     */
+    public ElasticHttpException( int nStatus, String strResponse )
+    {
+        super( "Elasticsearch HTTP error " + nStatus + " : " + strResponse );
+        _nStatus = nStatus;
+        _strResponse = strResponse;
+    }
+
+    /**
+     * Returns the HTTP status code
+     * 
+     * @return the status code
+     */
+    public int getStatus( )
+    {
+        return _nStatus;
+    }
+
+    /**
+     * Returns the HTTP status carried by the cause of an exception
+     * 
+     * @param e
+     *            the exception
+     * @return the HTTP status, or 0 if the exception isn't caused by an HTTP error status
+     */
+    public static int getStatus( Exception e )
+    {
+        return ( e.getCause( ) instanceof ElasticHttpException ) ? ( (ElasticHttpException) e.getCause( ) ).getStatus( ) : 0;
+    }
+
+    /**
+     * Returns the response body
+     * 
+     * @return the response body
+     */
+    public String getResponse( )
+    {
+        return _strResponse;
+    }
+}
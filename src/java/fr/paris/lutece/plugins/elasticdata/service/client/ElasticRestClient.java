@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2002-2025, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.apache.commons.lang3.StringUtils;
+
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+
+/**
+ * Lightweight REST client used for the Elasticsearch calls that are not covered by the Elastic library (raw bulk bodies, index settings, aliases, ...). It
+ * is not configured on its own : it is created by {@link fr.paris.lutece.plugins.elasticdata.service.DataSourceService#getRestClient()} with the server URL
+ * and the credentials given to the Elastic library, and its HTTPS connections use the default SSL context of the JVM, as the library does.
+ */
+public class ElasticRestClient
+{
+    public static final String METHOD_GET = "GET";
+    public static final String METHOD_POST = "POST";
+    public static final String METHOD_PUT = "PUT";
+    public static final String METHOD_DELETE = "DELETE";
+
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String HEADER_CONTENT_TYPE = "Content-Type";
+    private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+    private static final String PATH_BULK = "/_bulk";
+    private static final int HTTP_ERROR = 400;
+    private static final int CHUNK_SIZE = 65536;
+    private static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    private static final int DEFAULT_READ_TIMEOUT = 60000;
+
+    private final String _strServerUrl;
+    private final String _strAuthorization;
+    private final int _nConnectTimeout;
+    private final int _nReadTimeout;
+
+    /**
+     * Constructor
+     * 
+     * @param strServerUrl
+     *            the Elasticsearch server URL
+     */
+    public ElasticRestClient( String strServerUrl )
+    {
+        this( strServerUrl, null, null );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param strServerUrl
+     *            the Elasticsearch server URL
+     * @param strLogin
+     *            the login
+     * @param strPassword
+     *            the password
+     */
+    public ElasticRestClient( String strServerUrl, String strLogin, String strPassword )
+    {
+        this( strServerUrl, strLogin, strPassword, DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT );
+    }
+
+    /**
+     * Constructor
+     * 
+     * @param strServerUrl
+     *            the Elasticsearch server URL
+     * @param strLogin
+     *            the login
+     * @param strPassword
+     *            the password
+     * @param nConnectTimeout
+     *            the connect timeout in milliseconds, 0 for no timeout
+     * @param nReadTimeout
+     *            the read timeout in milliseconds, 0 for no timeout
+     */
+    public ElasticRestClient( String strServerUrl, String strLogin, String strPassword, int nConnectTimeout, int nReadTimeout )
+    {
+        _nConnectTimeout = nConnectTimeout;
+        _nReadTimeout = nReadTimeout;
+        _strServerUrl = StringUtils.removeEnd( strServerUrl, "/" );
+        if ( StringUtils.isNotEmpty( strLogin ) && StringUtils.isNotEmpty( strPassword ) )
+        {
+            String strCredentials = strLogin + ":" + strPassword;
+            _strAuthorization = "Basic " + Base64.getEncoder( ).encodeToString( strCredentials.getBytes( StandardCharsets.UTF_8 ) );
+        }
+        else
+        {
+            _strAuthorization = null;
+        }
+    }
+
+    /**
+     * Send a JSON request
+     * 
+     * @param strMethod
+     *            the HTTP method
+     * @param strPath
+     *            the path (starting with a slash)
+     * @param strJson
+     *            the JSON body, may be null
+     * @return the response body
+     * @throws ElasticClientException
+     *             if the request fails or if the server answers with an error status
+     */
+    public String doRequest( String strMethod, String strPath, String strJson ) throws ElasticClientException
+    {
+        RequestWriter writer = ( strJson != null ) ? out -> out.write( strJson.getBytes( StandardCharsets.UTF_8 ) ) : null;
+        return send( strMethod, strPath, CONTENT_TYPE_JSON, writer, ElasticRestClient::readString );
+    }
+
+    /**
+     * Post a bulk body to an index. The body is streamed to the server with chunked transfer as it is written.
+     * 
+     * @param <T>
+     *            the type of the parsed response
+     * @param strIndex
+     *            the target index
+     * @param strParameters
+     *            the query string parameters, may be null
+     * @param writer
+     *            the writer of the NDJSON bulk body
+     * @param handler
+     *            the parser of the response
+     * @return the parsed response
+     * @throws ElasticClientException
+     *             if the request fails or if the server answers with an error status
+     */
+    public <T> T postBulk( String strIndex, String strParameters, RequestWriter writer, ResponseHandler<T> handler ) throws ElasticClientException
+    {
+        String strPath = "/" + strIndex + PATH_BULK + ( StringUtils.isNotEmpty( strParameters ) ? "?" + strParameters : StringUtils.EMPTY );
+        return send( METHOD_POST, strPath, CONTENT_TYPE_NDJSON, writer, handler );
+    }
+
+    /**
+     * Send a request
+     * 
+     * @param <T>
+     *            the type of the parsed response
+     * @param strMethod
+     *            the HTTP method
+     * @param strPath
+     *            the path
+     * @param strContentType
+     *            the content type of the body
+     * @param writer
+     *            the writer of the body, may be null
+     * @param handler
+     *            the parser of the response
+     * @return the parsed response
+     * @throws ElasticClientException
+     *             if the request fails or if the server answers with an error status
+     */
+    private <T> T send( String strMethod, String strPath, String strContentType, RequestWriter writer, ResponseHandler<T> handler ) throws ElasticClientException
+    {
+        try
+        {
+            HttpURLConnection connection = open( strMethod, strPath );
+            if ( writer != null )
+            {
+                connection.setDoOutput( true );
+                connection.setRequestProperty( HEADER_CONTENT_TYPE, strContentType );
+                connection.setChunkedStreamingMode( CHUNK_SIZE );
+                try ( OutputStream out = connection.getOutputStream( ) )
+                {
+                    writer.write( out );
+                }
+            }
+            return readResponse( connection, handler );
+        }
+        catch( IOException e )
+        {
+            throw new ElasticClientException( "ElasticData " + strMethod + " " + strPath + " error", e );
+        }
+    }
+
+    /**
+     * Open a connection to the server
+     * 
+     * @param strMethod
+     *            the HTTP method
+     * @param strPath
+     *            the path
+     * @return the connection
+     * @throws IOException
+     *             if the connection can't be opened
+     */
+    private HttpURLConnection open( String strMethod, String strPath ) throws IOException
+    {
+        URL url;
+        try
+        {
+            url = URI.create( _strServerUrl + strPath ).toURL( );
+        }
+        catch( IllegalArgumentException e )
+        {
+            throw new IOException( "Invalid Elasticsearch URL " + _strServerUrl + strPath, e );
+        }
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection( );
+        connection.setRequestMethod( strMethod );
+        connection.setConnectTimeout( _nConnectTimeout );
+        connection.setReadTimeout( _nReadTimeout );
+        if ( _strAuthorization != null )
+        {
+            connection.setRequestProperty( HEADER_AUTHORIZATION, _strAuthorization );
+        }
+        return connection;
+    }
+
+    /**
+     * Parse the response and read it until its end so that the underlying connection can be reused
+     * 
+     * @param <T>
+     *            the type of the parsed response
+     * @param connection
+     *            the connection
+     * @param handler
+     *            the parser of the response
+     * @return the parsed response
+     * @throws IOException
+     *             if the response can't be read or if its status is an error
+     */
+    private static <T> T readResponse( HttpURLConnection connection, ResponseHandler<T> handler ) throws IOException
+    {
+        int nStatus = connection.getResponseCode( );
+        if ( nStatus >= HTTP_ERROR )
+        {
+            String strResponse = StringUtils.EMPTY;
+            try ( InputStream in = connection.getErrorStream( ) )
+            {
+                if ( in != null )
+                {
+                    strResponse = readString( in );
+                }
+            }
+            throw new ElasticHttpException( nStatus, strResponse );
+        }
+        try ( InputStream in = connection.getInputStream( ) )
+        {
+            T response = handler.handle( in );
+            in.transferTo( OutputStream.nullOutputStream( ) );
+            return response;
+        }
+    }
+
+    /**
+     * Read a whole stream as a string
+     * 
+     * @param in
+     *            the stream
+     * @return the string
+     * @throws IOException
+     *             if the stream can't be read
+     */
+    private static String readString( InputStream in ) throws IOException
+    {
+        return new String( in.readAllBytes( ), StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * Writer of a request body
+     */
+    @FunctionalInterface
+    public interface RequestWriter
+    {
+        /**
+         * Write the body of a request. The stream is closed by the client.
+         * 
+         * @param out
+         *            the output stream of the request
+         * @throws IOException
+         *             if the body can't be written
+         */
+        void write( OutputStream out ) throws IOException;
+    }
+
+    /**
+     * Parser of a response
+     *
+     * @param <T>
+     *            the type of the parsed response
+     */
+    @FunctionalInterface
+    public interface ResponseHandler<T>
+    {
+        /**
+         * Parse a response. The stream is closed by the client.
+         * 
+         * @param in
+         *            the response body
+         * @return the parsed response
+         * @throws IOException
+         *             if the response can't be parsed
+         */
+        T handle( InputStream in ) throws IOException;
+    }
+}
@@ -96,6 +96,21 @@ public abstract class AbstractManageJspBean <S, T> extends MVCAdminJspBean
         return model;
     }
     
+    /**
+     * Returns the number of items per page, read from the request or kept from the previous page
+     * 
+     * @param request
+     *            The HTTP request
+     * @return The number of items per page
+     */
+    protected int getItemsPerPage( HttpServletRequest request )
+    {
+        int nDefaultItemsPerPage = AppPropertiesService.getPropertyInt( PROPERTY_DEFAULT_LIST_ITEM_PER_PAGE, 50 );
+        _nItemsPerPage = AbstractPaginator.getItemsPerPage( request, AbstractPaginator.PARAMETER_ITEMS_PER_PAGE, _nItemsPerPage, nDefaultItemsPerPage );
+
+        return _nItemsPerPage;
+    }
+
     /**
      * Get Items from Ids list
      * @param <T>
@@ -46,22 +46,26 @@ import fr.paris.lutece.portal.util.mvc.commons.annotations.View;
 import fr.paris.lutece.portal.service.message.AdminMessage;
 import fr.paris.lutece.portal.service.message.AdminMessageService;
 import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.plugins.elasticdata.business.IndexerActionCount;
 import fr.paris.lutece.plugins.elasticdata.business.IndexerActionHome;
+import fr.paris.lutece.plugins.elasticdata.business.IndexingCheckpoint;
+import fr.paris.lutece.plugins.elasticdata.business.IndexingCheckpointHome;
 import fr.paris.lutece.portal.service.admin.AccessDeniedException;
 import fr.paris.lutece.portal.service.util.AppException;
 import fr.paris.lutece.util.url.UrlItem;
-import fr.paris.lutece.util.html.AbstractPaginator;
-import java.util.Comparator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.inject.Named;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 
 /**
  * ManageElasticData JSP Bean abstract class for JSP Bean
@@ -82,6 +86,10 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
     // Parameters
     private static final String PARAMETER_ID_INDEXERACTION = "id";
     private static final String PARAMETER_DATA_SOURCE = "data_source";
+    private static final String PARAMETER_FILTER_DATA_SOURCE = "filter_data_source";
+    private static final String PARAMETER_FILTER_ID_TASK = "filter_id_task";
+    private static final String PARAMETER_AFTER = "after";
+    private static final String PARAMETER_BEFORE = "before";
 
     // Properties for page titles
     private static final String PROPERTY_PAGE_TITLE_MANAGE_INDEXERACTIONS = "elasticdata.manage_indexeractions.pageTitle";
@@ -93,6 +101,14 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
     private static final String MARK_INDEXERACTION_LIST = "indexeraction_list";
     private static final String MARK_INDEXERACTION = "indexeraction";
     private static final String MARK_DATA_SOURCES_LIST = "data_sources_list";
+    private static final String MARK_CHECKPOINTS_MAP = "checkpoints_map";
+    private static final String MARK_COUNTS_LIST = "counts_list";
+    private static final String MARK_NB_TOTAL = "nb_total";
+    private static final String MARK_HAS_PREVIOUS = "has_previous";
+    private static final String MARK_HAS_NEXT = "has_next";
+    private static final String MARK_FILTER_DATA_SOURCE = "filter_data_source";
+    private static final String MARK_FILTER_ID_TASK = "filter_id_task";
+    private static final String MARK_NB_ITEMS_PER_PAGE = "nb_items_per_page";
 
     private static final String JSP_MANAGE_INDEXERACTIONS = "jsp/admin/plugins/elasticdata/ManageElasticData.jsp";
 
@@ -117,18 +133,22 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
     private static final String ACTION_CHECK_INDEX_STATUS = "checkIndexStatus";
     private static final String ACTION_INDEX = "index";
     private static final String ACTION_INDEX_INCREMENTAL = "index_incremental";
+    private static final String ACTION_RESUME = "resume";
 
     // Infos
     private static final String INFO_INDEXERACTION_CREATED = "elasticdata.info.indexeraction.created";
     private static final String INFO_INDEXERACTION_UPDATED = "elasticdata.info.indexeraction.updated";
     private static final String INFO_INDEXERACTION_REMOVED = "elasticdata.info.indexeraction.removed";
+    private static final String INFO_INDEXING_NO_CHECKPOINT = "elasticdata.info.indexing.noCheckpoint";
     
     // Errors
     private static final String ERROR_RESOURCE_NOT_FOUND = "Resource not found";
+    private static final String ERROR_DATA_SOURCE_NOT_FOUND = "elasticdata.error.dataSource.notFound";
     
     // Session variable to store working values
     private IndexerAction _indexeraction;
-    private List<Integer> _listIdIndexerActions;
+    private String _strFilterIdDataSource;
+    private int _nFilterIdTask;
 
     ObjectMapper _mapper = new ObjectMapper( );
 
@@ -144,6 +164,7 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
     {
         Map<String, Object> model = getModel( );
         model.put( MARK_DATA_SOURCES_LIST, DataSourceService.getDataSources( ) );
+        model.put( MARK_CHECKPOINTS_MAP, getCheckpointsMap( ) );
 
         return getPage( PROPERTY_PAGE_TITLE, TEMPLATE_HOME, model );
     }
@@ -160,6 +181,7 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
     {
         Map<String, Object> model = getModel( );
         model.put( MARK_DATA_SOURCES_LIST, DataSourceService.getDataSources( ) );
+        model.put( MARK_CHECKPOINTS_MAP, getCheckpointsMap( ) );
 
         return getPage( PROPERTY_PAGE_TITLE, TEMPLATE_HOME, model );
     }
@@ -182,6 +204,42 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
 
     }
 
+    /**
+     * Resume the interrupted full indexing of a given data source
+     * 
+     * @param request
+     *            The HTTP request
+     * @return The redirected page
+     */
+    @Action( value = ACTION_RESUME, securityTokenDisabled = true )
+    public String doResumeIndexing( HttpServletRequest request )
+    {
+        String strDataSourceId = request.getParameter( PARAMETER_DATA_SOURCE );
+        DataSource dataSource = DataSourceService.getDataSource( strDataSourceId );
+        if ( dataSource == null )
+        {
+            addError( ERROR_DATA_SOURCE_NOT_FOUND, getLocale( ) );
+        }
+        else
+            if ( !DataSourceService.resumeFullIndexing( dataSource ) )
+            {
+                addInfo( INFO_INDEXING_NO_CHECKPOINT, getLocale( ) );
+            }
+
+        return redirectView( request, VIEW_HOME );
+    }
+
+    /**
+     * Get the checkpoints of the interrupted full indexings
+     * 
+     * @return the checkpoints by data source id
+     */
+    private static Map<String, IndexingCheckpoint> getCheckpointsMap( )
+    {
+        return IndexingCheckpointHome.getIndexingCheckpointsList( ).stream( )
+                .collect( Collectors.toMap( IndexingCheckpoint::getIdDataSource, Function.identity( ) ) );
+    }
+
     /**
      * Process the incremental indexing of a given data source
      * 
@@ -231,48 +289,70 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
         }
     }
 
-       /**
-     * Build the Manage View
-     * @param request The HTTP request
+    /**
+     * Build the Manage View. The actions are read by keyset pages, optionally filtered by data source and task, and counted with an aggregate query.
+     * 
+     * @param request
+     *            The HTTP request
      * @return The page
      */
     @View( value = VIEW_MANAGE_INDEXERACTIONS )
     public String getManageIndexerActions( HttpServletRequest request )
     {
         _indexeraction = null;
-        
-        if ( request.getParameter( AbstractPaginator.PARAMETER_PAGE_INDEX) == null || _listIdIndexerActions.isEmpty( ) )
+
+        if ( request.getParameter( PARAMETER_FILTER_DATA_SOURCE ) != null )
         {
-        	_listIdIndexerActions = IndexerActionHome.getIdIndexerActionsList(  );
+            _strFilterIdDataSource = StringUtils.trimToNull( request.getParameter( PARAMETER_FILTER_DATA_SOURCE ) );
+            _nFilterIdTask = NumberUtils.toInt( request.getParameter( PARAMETER_FILTER_ID_TASK ), 0 );
         }
-        
-        Map<String, Object> model = getPaginatedListModel( request, MARK_INDEXERACTION_LIST, _listIdIndexerActions, JSP_MANAGE_INDEXERACTIONS );
+
+        int nItemsPerPage = getItemsPerPage( request );
+        String strBefore = request.getParameter( PARAMETER_BEFORE );
+        boolean bBackward = StringUtils.isNotEmpty( strBefore );
+        int nIdAction = bBackward ? NumberUtils.toInt( strBefore, Integer.MAX_VALUE ) : NumberUtils.toInt( request.getParameter( PARAMETER_AFTER ), 0 );
+
+        // One more action is read to know if there is a page beyond this one
+        List<IndexerAction> listIndexerActions = IndexerActionHome.getFilteredIndexerActionsPage( _strFilterIdDataSource, _nFilterIdTask, nIdAction,
+                bBackward, nItemsPerPage + 1 );
+        boolean bMore = listIndexerActions.size( ) > nItemsPerPage;
+        if ( bMore )
+        {
+            listIndexerActions = bBackward ? listIndexerActions.subList( 1, listIndexerActions.size( ) ) : listIndexerActions.subList( 0, nItemsPerPage );
+        }
+
+        List<IndexerActionCount> listCounts = IndexerActionHome.getIndexerActionsCounts( );
+        int nTotal = listCounts.stream( ).filter( count -> _strFilterIdDataSource == null || _strFilterIdDataSource.equals( count.getIdDataSource( ) ) )
+                .filter( count -> _nFilterIdTask == 0 || _nFilterIdTask == count.getIdTask( ) ).mapToInt( IndexerActionCount::getCount ).sum( );
+
+        Map<String, Object> model = getModel( );
+        model.put( MARK_INDEXERACTION_LIST, new ArrayList<>( listIndexerActions ) );
+        model.put( MARK_HAS_PREVIOUS, bBackward ? bMore : ( nIdAction > 0 ) );
+        model.put( MARK_HAS_NEXT, !listIndexerActions.isEmpty( ) && ( bBackward || bMore ) );
+        model.put( MARK_COUNTS_LIST, listCounts );
+        model.put( MARK_NB_TOTAL, nTotal );
+        model.put( MARK_DATA_SOURCES_LIST, DataSourceService.getDataSources( ) );
+        model.put( MARK_FILTER_DATA_SOURCE, StringUtils.defaultString( _strFilterIdDataSource ) );
+        model.put( MARK_FILTER_ID_TASK, _nFilterIdTask );
+        model.put( MARK_NB_ITEMS_PER_PAGE, String.valueOf( nItemsPerPage ) );
 
         return getPage( PROPERTY_PAGE_TITLE_MANAGE_INDEXERACTIONS, TEMPLATE_MANAGE_INDEXERACTIONS, model );
     }
 
-	/**
+    /**
      * Get Items from Ids list
+     * 
      * @param listIds
-     * @return the populated list of items corresponding to the id List
+     *            the ids
+     * @return the populated list of items corresponding to the id List, in its order
      */
-	@Override
-	List<IndexerAction> getItemsFromIds( List<Integer> listIds ) 
-	{
-		List<IndexerAction> listIndexerAction = IndexerActionHome.getIndexerActionsListByIds( listIds );
-		
-		// keep original order
-        return listIndexerAction.stream()
-                 .sorted(Comparator.comparingInt( notif -> listIds.indexOf( notif.getId())))
-                 .collect(Collectors.toList());
-	}
-    
-    /**
-    * reset the _listIdIndexerActions list
-    */
-    public void resetListId( )
+    @Override
+    List<IndexerAction> getItemsFromIds( List<Integer> listIds )
     {
-    	_listIdIndexerActions = new ArrayList<>( );
+        Map<Integer, IndexerAction> mapIndexerActions = IndexerActionHome.getIndexerActionsListByIds( listIds ).stream( )
+                .collect( Collectors.toMap( IndexerAction::getId, Function.identity( ) ) );
+
+        return listIds.stream( ).map( mapIndexerActions::get ).filter( Objects::nonNull ).collect( Collectors.toList( ) );
     }
 
     /**
@@ -312,7 +392,6 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
 
         IndexerActionHome.create( _indexeraction );
         addInfo( INFO_INDEXERACTION_CREATED, getLocale(  ) );
-        resetListId( );
 
         return redirectView( request, VIEW_MANAGE_INDEXERACTIONS );
     }
@@ -350,7 +429,6 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
 
         IndexerActionHome.remove( nId );
         addInfo( INFO_INDEXERACTION_REMOVED, getLocale(  ) );
-        resetListId( );
 
         return redirectView( request, VIEW_MANAGE_INDEXERACTIONS );
     }
@@ -399,7 +477,6 @@ public class ManageElasticDataJspBean extends AbstractManageJspBean<Integer, Ind
 
         IndexerActionHome.update( _indexeraction );
         addInfo( INFO_INDEXERACTION_UPDATED, getLocale(  ) );
-        resetListId( );
 
         return redirectView( request, VIEW_MANAGE_INDEXERACTIONS );
     }
@@ -7,5 +7,22 @@ CREATE TABLE  elasticdata_indexer_action (
   id_resource varchar(255) NOT NULL,
   id_task int default 0 NOT NULL,
   id_datasource varchar(255) NOT NULL,
+  priority int default 1 NOT NULL,
+  lease_owner varchar(50) default NULL,
+  lease_expiry timestamp NULL default NULL,
   PRIMARY KEY (id_action)
 );
+CREATE UNIQUE INDEX uk_elasticdata_indexer_action_resource ON elasticdata_indexer_action ( id_datasource, id_resource );
+CREATE INDEX idx_elasticdata_indexer_action_task ON elasticdata_indexer_action ( id_datasource, id_task, id_action );
+CREATE INDEX idx_elasticdata_indexer_action_priority ON elasticdata_indexer_action ( id_datasource, priority, id_action );
+
+DROP TABLE IF EXISTS elasticdata_indexing_checkpoint;
+CREATE TABLE  elasticdata_indexing_checkpoint (
+  id_datasource varchar(255) NOT NULL,
+  run_id varchar(50) NOT NULL,
+  target_index varchar(255) NOT NULL,
+  last_id_resource varchar(255) default NULL,
+  nb_indexed int default 0 NOT NULL,
+  date_update timestamp default CURRENT_TIMESTAMP NOT NULL,
+  PRIMARY KEY (id_datasource)
+);
@@ -0,0 +1,23 @@
+-- liquibase formatted sql
+-- changeset elasticdata:update_db_elasticdata-3.0.0-3.0.1.sql
+-- preconditions onFail:MARK_RAN onError:WARN
+CREATE TABLE IF NOT EXISTS elasticdata_indexing_checkpoint (
+  id_datasource varchar(255) NOT NULL,
+  run_id varchar(50) NOT NULL,
+  target_index varchar(255) NOT NULL,
+  last_id_resource varchar(255) default NULL,
+  nb_indexed int default 0 NOT NULL,
+  date_update timestamp default CURRENT_TIMESTAMP NOT NULL,
+  PRIMARY KEY (id_datasource)
+);
+
+ALTER TABLE elasticdata_indexer_action ADD COLUMN lease_owner varchar(50) default NULL;
+ALTER TABLE elasticdata_indexer_action ADD COLUMN lease_expiry timestamp NULL default NULL;
+
+-- Keep only the latest action of each resource before adding the unique key (the derived table lets MySQL read the table it deletes from)
+DELETE FROM elasticdata_indexer_action WHERE id_action NOT IN ( SELECT id_action FROM ( SELECT MAX( id_action ) AS id_action FROM elasticdata_indexer_action GROUP BY id_datasource, id_resource ) kept );
+CREATE UNIQUE INDEX uk_elasticdata_indexer_action_resource ON elasticdata_indexer_action ( id_datasource, id_resource );
+CREATE INDEX idx_elasticdata_indexer_action_task ON elasticdata_indexer_action ( id_datasource, id_task, id_action );
+
+ALTER TABLE elasticdata_indexer_action ADD COLUMN priority int default 1 NOT NULL;
+CREATE INDEX idx_elasticdata_indexer_action_priority ON elasticdata_indexer_action ( id_datasource, priority, id_action );
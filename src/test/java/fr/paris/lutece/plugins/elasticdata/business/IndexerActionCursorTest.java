@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * IndexerActionCursorTest
+ */
+public class IndexerActionCursorTest extends LuteceTestCase
+{
+
+    /**
+     * Test of the cursor on an empty queue : a single page is loaded
+     */
+    @Test
+    void testEmpty( )
+    {
+        MockPageLoader loader = new MockPageLoader( 0 );
+        IndexerActionCursor cursor = new IndexerActionCursor( loader, 3 );
+
+        assertFalse( cursor.hasNext( ) );
+        assertFalse( cursor.hasNext( ) );
+        assertThrows( NoSuchElementException.class, cursor::next );
+        assertEquals( Arrays.asList( 0 ), loader.getIdsActionAfter( ) );
+    }
+
+    /**
+     * Test of the cursor on a queue shorter than a page
+     */
+    @Test
+    void testPartialPage( )
+    {
+        MockPageLoader loader = new MockPageLoader( 2 );
+
+        assertEquals( Arrays.asList( 1, 2 ), readAll( new IndexerActionCursor( loader, 3 ) ) );
+        assertEquals( Arrays.asList( 0 ), loader.getIdsActionAfter( ) );
+    }
+
+    /**
+     * Test of the cursor on a queue of exactly one page : an empty page is loaded to detect the end
+     */
+    @Test
+    void testFullPage( )
+    {
+        MockPageLoader loader = new MockPageLoader( 3 );
+
+        assertEquals( Arrays.asList( 1, 2, 3 ), readAll( new IndexerActionCursor( loader, 3 ) ) );
+        assertEquals( Arrays.asList( 0, 3 ), loader.getIdsActionAfter( ) );
+    }
+
+    /**
+     * Test of the cursor on a queue of several pages : each page is loaded after the last id of the previous one
+     */
+    @Test
+    void testSeveralPages( )
+    {
+        MockPageLoader loader = new MockPageLoader( 7 );
+
+        assertEquals( Arrays.asList( 1, 2, 3, 4, 5, 6, 7 ), readAll( new IndexerActionCursor( loader, 3 ) ) );
+        assertEquals( Arrays.asList( 0, 3, 6 ), loader.getIdsActionAfter( ) );
+    }
+
+    /**
+     * Read all the actions of a cursor
+     * 
+     * @param cursor
+     *            the cursor
+     * @return the ids of the actions
+     */
+    private static List<Integer> readAll( IndexerActionCursor cursor )
+    {
+        List<IndexerAction> listActions = new ArrayList<>( );
+        cursor.forEachRemaining( listActions::add );
+        assertFalse( cursor.hasNext( ) );
+        return listActions.stream( ).map( IndexerAction::getId ).collect( Collectors.toList( ) );
+    }
+
+    /**
+     * Loader of the pages of a queue of actions numbered from 1
+     */
+    private static final class MockPageLoader implements IndexerActionCursor.PageLoader
+    {
+        private final int _nSize;
+        private final List<Integer> _listIdsActionAfter = new ArrayList<>( );
+
+        /**
+         * Constructor
+         * 
+         * @param nSize
+         *            the number of actions of the queue
+         */
+        private MockPageLoader( int nSize )
+        {
+            _nSize = nSize;
+        }
+
+        /**
+         * Returns the id after which each page has been loaded
+         * 
+         * @return the ids
+         */
+        private List<Integer> getIdsActionAfter( )
+        {
+            return _listIdsActionAfter;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<IndexerAction> load( int nIdActionAfter, int nLimit )
+        {
+            _listIdsActionAfter.add( nIdActionAfter );
+            List<IndexerAction> listPage = new ArrayList<>( );
+            for ( int nId = nIdActionAfter + 1; ( nId <= _nSize ) && ( listPage.size( ) < nLimit ); nId++ )
+            {
+                IndexerAction action = new IndexerAction( );
+                action.setId( nId );
+                listPage.add( action );
+            }
+            return listPage;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * IndexerActionDAOTest
+ */
+public class IndexerActionDAOTest extends LuteceTestCase
+{
+    private static final String QUERY = "DELETE FROM elasticdata_indexer_action WHERE id_action IN (?";
+
+    /**
+     * Test of getInListShape method, of class IndexerActionDAO : the lists are rounded up to the shapes 1, 16, 128 and 1024
+     */
+    @Test
+    void testGetInListShape( )
+    {
+        assertEquals( 1, IndexerActionDAO.getInListShape( 1 ) );
+        assertEquals( 16, IndexerActionDAO.getInListShape( 2 ) );
+        assertEquals( 16, IndexerActionDAO.getInListShape( 16 ) );
+        assertEquals( 128, IndexerActionDAO.getInListShape( 17 ) );
+        assertEquals( 128, IndexerActionDAO.getInListShape( 128 ) );
+        assertEquals( 1024, IndexerActionDAO.getInListShape( 129 ) );
+        assertEquals( 1024, IndexerActionDAO.getInListShape( 1024 ) );
+    }
+
+    /**
+     * Test of getInListQuery method, of class IndexerActionDAO
+     */
+    @Test
+    void testGetInListQuery( )
+    {
+        assertEquals( QUERY + " ) ", IndexerActionDAO.getInListQuery( QUERY, 1 ) );
+        for ( int nShape : new int [ ] {
+                16, 128, 1024
+        } )
+        {
+            String strQuery = IndexerActionDAO.getInListQuery( QUERY, nShape );
+            assertEquals( nShape, strQuery.chars( ).filter( c -> c == '?' ).count( ) );
+        }
+    }
+
+    /**
+     * Test of bindInList method, of class IndexerActionDAO : the values missing to fill the shape are replaced by the last value of the list
+     */
+    @Test
+    void testBindInListPadding( )
+    {
+        List<Integer> listValues = Arrays.asList( 1, 2, 3 );
+        List<Integer> listBound = new ArrayList<>( );
+        List<Integer> listIndexes = new ArrayList<>( );
+
+        IndexerActionDAO.bindInList( null, 1, daoUtil -> listBound.add( 0 ), listValues, 0, IndexerActionDAO.getInListShape( listValues.size( ) ),
+                ( daoUtil, nIndex, value ) -> {
+                    listIndexes.add( nIndex );
+                    listBound.add( value );
+                } );
+
+        assertEquals( 17, listBound.size( ) );
+        assertEquals( Arrays.asList( 0, 1, 2, 3 ), listBound.subList( 0, 4 ) );
+        for ( int i = 4; i < listBound.size( ); i++ )
+        {
+            assertEquals( 3, listBound.get( i ).intValue( ) );
+        }
+        assertEquals( 2, listIndexes.get( 0 ).intValue( ) );
+        assertEquals( 17, listIndexes.get( listIndexes.size( ) - 1 ).intValue( ) );
+    }
+
+    /**
+     * Test of bindInList method, of class IndexerActionDAO : a chunk starting after the first values binds its own values
+     */
+    @Test
+    void testBindInListChunk( )
+    {
+        List<Integer> listValues = new ArrayList<>( );
+        for ( int i = 0; i < 1030; i++ )
+        {
+            listValues.add( i );
+        }
+        List<Integer> listBound = new ArrayList<>( );
+
+        IndexerActionDAO.bindInList( null, 0, daoUtil -> {
+        }, listValues, 1024, IndexerActionDAO.getInListShape( listValues.size( ) - 1024 ), ( daoUtil, nIndex, value ) -> listBound.add( value ) );
+
+        assertEquals( 16, listBound.size( ) );
+        assertEquals( Arrays.asList( 1024, 1025, 1026, 1027, 1028, 1029 ), listBound.subList( 0, 6 ) );
+        assertEquals( 1029, listBound.get( 15 ).intValue( ) );
+    }
+}
@@ -33,7 +33,10 @@
  */
 package fr.paris.lutece.plugins.elasticdata.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 import fr.paris.lutece.plugins.elasticdata.business.AbstractDataObject;
+import fr.paris.lutece.plugins.elasticdata.business.DataObject;
 import fr.paris.lutece.test.LuteceTestCase;
 import org.junit.jupiter.api.Test;
 
@@ -73,4 +76,17 @@ public class AbstractDataObjectTest extends LuteceTestCase
          */
     }
 
+    /**
+     * Test of getVersion method, of class AbstractDataObject : an unset timestamp gives no version
+     */
+    @Test
+    void testGetVersion( )
+    {
+        AbstractDataObject dataObject = new TestDataObject( );
+        assertEquals( DataObject.NO_VERSION, dataObject.getVersion( ) );
+
+        dataObject.setTimestamp( 1700000000000L );
+        assertEquals( 1700000000000L, dataObject.getVersion( ) );
+    }
+
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * DataSourceIncrementalServiceTest
+ */
+public class DataSourceIncrementalServiceTest extends LuteceTestCase
+{
+
+    /**
+     * Test of collapseTasks method, of class DataSourceIncrementalService : the pending task is kept unless the new task is a deletion
+     */
+    @Test
+    void testCollapseTasks( )
+    {
+        assertEquals( IndexerAction.TASK_CREATE, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_CREATE, IndexerAction.TASK_CREATE ) );
+        assertEquals( IndexerAction.TASK_CREATE, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_CREATE, IndexerAction.TASK_MODIFY ) );
+        assertEquals( IndexerAction.TASK_MODIFY, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_MODIFY, IndexerAction.TASK_CREATE ) );
+        assertEquals( IndexerAction.TASK_MODIFY, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_MODIFY, IndexerAction.TASK_MODIFY ) );
+        assertEquals( IndexerAction.TASK_DELETE, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_MODIFY, IndexerAction.TASK_DELETE ) );
+        assertEquals( IndexerAction.TASK_DELETE, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_DELETE, IndexerAction.TASK_MODIFY ) );
+    }
+
+    /**
+     * Test of collapseTasks method, of class DataSourceIncrementalService : a creation followed by a deletion is kept as a deletion
+     */
+    @Test
+    void testCollapseTasksCreateThenDelete( )
+    {
+        assertEquals( IndexerAction.TASK_DELETE, DataSourceIncrementalService.collapseTasks( IndexerAction.TASK_CREATE, IndexerAction.TASK_DELETE ) );
+    }
+
+}
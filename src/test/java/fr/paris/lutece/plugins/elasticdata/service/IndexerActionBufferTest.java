@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * IndexerActionBufferTest
+ */
+public class IndexerActionBufferTest extends LuteceTestCase
+{
+    private static final String DATA_SOURCE = "datasource";
+
+    /**
+     * Test of collapse method, of class IndexerActionBuffer : the tasks of a same resource are collapsed into one action keeping the highest priority
+     */
+    @Test
+    void testCollapse( )
+    {
+        Map<String, Map<String, IndexerAction>> mapPending = new LinkedHashMap<>( );
+
+        assertEquals( 1, IndexerActionBuffer.collapse( mapPending, DATA_SOURCE, "1", IndexerAction.TASK_CREATE, 2 ) );
+        assertEquals( 0, IndexerActionBuffer.collapse( mapPending, DATA_SOURCE, "1", IndexerAction.TASK_MODIFY, 0 ) );
+        assertEquals( 1, IndexerActionBuffer.collapse( mapPending, DATA_SOURCE, "2", IndexerAction.TASK_MODIFY, 1 ) );
+        assertEquals( 0, IndexerActionBuffer.collapse( mapPending, DATA_SOURCE, "2", IndexerAction.TASK_DELETE, 2 ) );
+
+        IndexerAction action1 = mapPending.get( DATA_SOURCE ).get( "1" );
+        assertEquals( IndexerAction.TASK_CREATE, action1.getIdTask( ) );
+        assertEquals( 2, action1.getPriority( ) );
+        IndexerAction action2 = mapPending.get( DATA_SOURCE ).get( "2" );
+        assertEquals( IndexerAction.TASK_DELETE, action2.getIdTask( ) );
+        assertEquals( 2, action2.getPriority( ) );
+        assertEquals( 2, mapPending.get( DATA_SOURCE ).size( ) );
+    }
+
+    /**
+     * Test of collapse method, of class IndexerActionBuffer : a creation followed by a deletion is kept as a deletion
+     */
+    @Test
+    void testCollapseCreateThenDelete( )
+    {
+        Map<String, Map<String, IndexerAction>> mapPending = new LinkedHashMap<>( );
+
+        IndexerActionBuffer.collapse( mapPending, DATA_SOURCE, "1", IndexerAction.TASK_CREATE, 1 );
+        IndexerActionBuffer.collapse( mapPending, DATA_SOURCE, "1", IndexerAction.TASK_DELETE, 1 );
+
+        assertEquals( IndexerAction.TASK_DELETE, mapPending.get( DATA_SOURCE ).get( "1" ).getIdTask( ) );
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+
+import org.apache.commons.lang3.StringUtils;
+
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BulkBodyBuilderTest
+ */
+public class BulkBodyBuilderTest extends LuteceTestCase
+{
+
+    /**
+     * Test of add method, of class BulkBodyBuilder : a body filled up to its byte budget is closed before the next item
+     * 
+     * @throws IOException
+     *             if an item can't be serialized
+     */
+    @Test
+    void testAddByteBudget( ) throws IOException
+    {
+        BulkItem item = newItem( 100 );
+        long lItemSize = item.getSizeInBytes( );
+        BulkBodyBuilder builder = new BulkBodyBuilder( 100, 2 * lItemSize );
+
+        assertNull( builder.add( item ) );
+        assertNull( builder.add( newItem( 100 ) ) );
+        BulkBody body = builder.add( newItem( 100 ) );
+        assertEquals( 2, body.size( ) );
+        assertEquals( 2 * lItemSize, body.getSizeInBytes( ) );
+
+        body = builder.flush( );
+        assertEquals( 1, body.size( ) );
+        assertNull( builder.flush( ) );
+    }
+
+    /**
+     * Test of add method, of class BulkBodyBuilder : an item larger than the byte budget is sent alone
+     * 
+     * @throws IOException
+     *             if an item can't be serialized
+     */
+    @Test
+    void testAddItemLargerThanBudget( ) throws IOException
+    {
+        BulkBodyBuilder builder = new BulkBodyBuilder( 100, 50 );
+
+        assertNull( builder.add( newItem( 100 ) ) );
+        assertEquals( 1, builder.add( newItem( 100 ) ).size( ) );
+        assertEquals( 1, builder.flush( ).size( ) );
+    }
+
+    /**
+     * Test of add method, of class BulkBodyBuilder : a body is closed when it reaches the max number of actions
+     * 
+     * @throws IOException
+     *             if an item can't be serialized
+     */
+    @Test
+    void testAddMaxActions( ) throws IOException
+    {
+        BulkBodyBuilder builder = new BulkBodyBuilder( 3, Long.MAX_VALUE );
+
+        assertNull( builder.add( newItem( 10 ) ) );
+        assertNull( builder.add( newItem( 10 ) ) );
+        assertNull( builder.add( newItem( 10 ) ) );
+        assertEquals( 3, builder.add( newItem( 10 ) ).size( ) );
+        assertEquals( 1, builder.flush( ).size( ) );
+    }
+
+    /**
+     * Create an index item of a given source length
+     * 
+     * @param nLength
+     *            the length of the source
+     * @return the item
+     * @throws IOException
+     *             if the item can't be serialized
+     */
+    private static BulkItem newItem( int nLength ) throws IOException
+    {
+        return BulkItem.index( "1", "doc1", StringUtils.repeat( 'x', nLength ), -1L );
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.paris.lutece.plugins.elasticdata.business.IndexerAction;
+import fr.paris.lutece.plugins.elasticdata.business.mock.MockDataSource;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BulkIndexerTest
+ */
+public class BulkIndexerTest extends LuteceTestCase
+{
+    private static final String ID_RESOURCE_FOUND = "1";
+    private static final String ID_RESOURCE_NOT_FOUND = "42";
+    private static final String ID_RESOURCE_DELETED = "43";
+
+    /**
+     * Test of apply method, of class BulkIndexer : a create or modify action whose object is not returned by the data source is neither posted as a delete
+     * nor acknowledged, so that it is retried
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    void testApplyObjectNotFound( ) throws Exception
+    {
+        MockDataSource dataSource = new MockDataSource( );
+        dataSource.setId( "mock" );
+        dataSource.setName( "mock" );
+        MockElasticRestClient client = new MockElasticRestClient( );
+        List<String> listAcknowledged = new ArrayList<>( );
+
+        int nCount;
+        try ( BulkIndexer indexer = new BulkIndexer( dataSource, "index", client, Thread::new,
+                result -> listAcknowledged.addAll( result.getSucceededIdResources( ) ) ) )
+        {
+            nCount = indexer.apply( Arrays.asList( newAction( ID_RESOURCE_NOT_FOUND, IndexerAction.TASK_MODIFY ),
+                    newAction( ID_RESOURCE_NOT_FOUND, IndexerAction.TASK_CREATE ), newAction( ID_RESOURCE_DELETED, IndexerAction.TASK_DELETE ),
+                    newAction( ID_RESOURCE_FOUND, IndexerAction.TASK_CREATE ) ) );
+        }
+
+        assertEquals( 2, nCount );
+        assertEquals( Arrays.asList( ID_RESOURCE_DELETED, ID_RESOURCE_FOUND ), listAcknowledged );
+        assertFalse( client.getBody( ).contains( "\"" + ID_RESOURCE_NOT_FOUND + "\"" ) );
+        assertTrue( client.getBody( ).contains( "\"delete\"" ) );
+    }
+
+    /**
+     * Create an indexer action
+     * 
+     * @param strIdResource
+     *            the id of the resource
+     * @param nIdTask
+     *            the task
+     * @return the action
+     */
+    private static IndexerAction newAction( String strIdResource, int nIdTask )
+    {
+        IndexerAction action = new IndexerAction( );
+        action.setIdResource( strIdResource );
+        action.setIdTask( nIdTask );
+        return action;
+    }
+
+    /**
+     * Client accepting all the bulk requests without server
+     */
+    private static final class MockElasticRestClient extends ElasticRestClient
+    {
+        private final StringBuilder _sbBody = new StringBuilder( );
+
+        /**
+         * Constructor
+         */
+        private MockElasticRestClient( )
+        {
+            super( "http://localhost:9200" );
+        }
+
+        /**
+         * Returns the bodies of the requests sent
+         * 
+         * @return the bodies
+         */
+        private synchronized String getBody( )
+        {
+            return _sbBody.toString( );
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <T> T postBulk( String strIndex, String strParameters, RequestWriter writer, ResponseHandler<T> handler ) throws ElasticClientException
+        {
+            try
+            {
+                ByteArrayOutputStream out = new ByteArrayOutputStream( );
+                writer.write( out );
+                synchronized( this )
+                {
+                    _sbBody.append( out.toString( StandardCharsets.UTF_8.name( ) ) );
+                }
+                return handler.handle( new ByteArrayInputStream( "{\"errors\":false,\"items\":[]}".getBytes( StandardCharsets.UTF_8 ) ) );
+            }
+            catch( IOException e )
+            {
+                throw new ElasticClientException( "Bulk request error", e );
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import fr.paris.lutece.plugins.elasticdata.business.AbstractDataObject;
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BulkItemTest
+ */
+public class BulkItemTest extends LuteceTestCase
+{
+
+    class TestDataObject extends AbstractDataObject
+    {
+    }
+
+    /**
+     * Test of index method, of class BulkItem : a modification keeping the timestamp of the creation is written with the same version, accepted by the
+     * external_gte version type
+     * 
+     * @throws IOException
+     *             if the document can't be serialized
+     */
+    @Test
+    void testIndexModifyAfterCreate( ) throws IOException
+    {
+        TestDataObject dataObject = new TestDataObject( );
+        dataObject.setTimestamp( 1700000000000L );
+        BulkItem itemCreate = BulkItem.index( "1", "doc1", dataObject, dataObject.getVersion( ) );
+        BulkItem itemModify = BulkItem.index( "1", "doc1", dataObject, dataObject.getVersion( ) );
+
+        String strAction = "{\"index\":{\"_id\":\"doc1\",\"version\":1700000000000,\"version_type\":\"external_gte\"}}";
+        assertEquals( strAction, getActionLine( itemCreate ) );
+        assertEquals( strAction, getActionLine( itemModify ) );
+        assertTrue( itemModify.isVersioned( ) );
+    }
+
+    /**
+     * Test of index method, of class BulkItem : a data with an unset timestamp is written without version
+     * 
+     * @throws IOException
+     *             if the document can't be serialized
+     */
+    @Test
+    void testIndexWithoutVersion( ) throws IOException
+    {
+        TestDataObject dataObject = new TestDataObject( );
+        BulkItem item = BulkItem.index( "1", "doc1", dataObject, dataObject.getVersion( ) );
+
+        assertEquals( "{\"index\":{\"_id\":\"doc1\"}}", getActionLine( item ) );
+        assertFalse( item.isVersioned( ) );
+    }
+
+    /**
+     * Returns the action line of an item
+     * 
+     * @param item
+     *            the item
+     * @return the first NDJSON line
+     */
+    private static String getActionLine( BulkItem item )
+    {
+        String strData = new String( item.getData( ), StandardCharsets.UTF_8 );
+        return strData.substring( 0, strData.indexOf( '\n' ) );
+    }
+}
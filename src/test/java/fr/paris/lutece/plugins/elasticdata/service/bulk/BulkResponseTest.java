@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BulkResponseTest
+ */
+public class BulkResponseTest extends LuteceTestCase
+{
+    private static final String CONFLICT = "{\"status\":409,\"error\":{\"type\":\"version_conflict_engine_exception\",\"reason\":\"conflict\"}}";
+
+    /**
+     * Test of parse method, of class BulkResponse : only the version conflicts of the versioned index actions are ignored
+     * 
+     * @throws IOException
+     *             if the response can't be parsed
+     */
+    @Test
+    void testParseVersionConflicts( ) throws IOException
+    {
+        List<BulkItem> listItems = Arrays.asList( BulkItem.index( "1", "doc1", "source", 10L ), BulkItem.index( "2", "doc2", "source", -1L ),
+                BulkItem.update( "3", "doc3", "source" ), BulkItem.delete( "4", "doc4" ), BulkItem.index( "5", "doc5", "source", 10L ) );
+        String strResponse = "{\"errors\":true,\"items\":[{\"index\":" + CONFLICT + "},{\"index\":" + CONFLICT + "},{\"update\":" + CONFLICT + "},"
+                + "{\"delete\":{\"status\":404}},{\"index\":{\"status\":201}}]}";
+
+        BulkResponse response = BulkResponse.parse( new ByteArrayInputStream( strResponse.getBytes( StandardCharsets.UTF_8 ) ), listItems );
+
+        assertNull( response.getError( 0 ) );
+        assertNotNull( response.getError( 1 ) );
+        assertEquals( 409, response.getError( 2 ).getStatus( ) );
+        assertNull( response.getError( 3 ) );
+        assertNull( response.getError( 4 ) );
+    }
+}
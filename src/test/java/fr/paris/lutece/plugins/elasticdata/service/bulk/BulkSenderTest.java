@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2002-2021, City of Paris
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  1. Redistributions of source code must retain the above copyright notice
+ *     and the following disclaimer.
+ *
+ *  2. Redistributions in binary form must reproduce the above copyright notice
+ *     and the following disclaimer in the documentation and/or other materials
+ *     provided with the distribution.
+ *
+ *  3. Neither the name of 'Mairie de Paris' nor 'Lutece' nor the names of its
+ *     contributors may be used to endorse or promote products derived from
+ *     this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ *
+ * License 1.0
+ */
+package fr.paris.lutece.plugins.elasticdata.service.bulk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticHttpException;
+import fr.paris.lutece.plugins.elasticdata.service.client.ElasticRestClient;
+import fr.paris.lutece.plugins.libraryelastic.util.ElasticClientException;
+import fr.paris.lutece.test.LuteceTestCase;
+import org.junit.jupiter.api.Test;
+
+/**
+ * BulkSenderTest
+ */
+public class BulkSenderTest extends LuteceTestCase
+{
+    private static final int HTTP_CREATED = 201;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_PAYLOAD_TOO_LARGE = 413;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int RETRY_MAX_ATTEMPTS = 5;
+
+    /**
+     * Test of send method, of class BulkSender : a body rejected as too large is split in halves until its parts are accepted
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    void testSendPayloadTooLarge( ) throws Exception
+    {
+        MockElasticRestClient client = new MockElasticRestClient( ( nAttempt, nActions ) -> ( nActions > 2 ) ? HTTP_PAYLOAD_TOO_LARGE : HTTP_CREATED );
+
+        BulkResult result = BulkSender.send( client, "index", newBody( 8 ) );
+
+        assertEquals( 8, result.getSucceeded( ).size( ) );
+        assertEquals( 0, result.getFailures( ).size( ) );
+        assertEquals( Arrays.asList( 8, 4, 2, 2, 4, 2, 2 ), client.getRequestsSizes( ) );
+    }
+
+    /**
+     * Test of send method, of class BulkSender : a single action rejected as too large can't be split
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    void testSendPayloadTooLargeSingleAction( ) throws Exception
+    {
+        MockElasticRestClient client = new MockElasticRestClient( ( nAttempt, nActions ) -> HTTP_PAYLOAD_TOO_LARGE );
+
+        assertThrows( ElasticClientException.class, ( ) -> BulkSender.send( client, "index", newBody( 1 ) ) );
+        assertEquals( Arrays.asList( 1 ), client.getRequestsSizes( ) );
+    }
+
+    /**
+     * Test of send method, of class BulkSender : a request rejected with a 429 status is sent again
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    void testSendTooManyRequests( ) throws Exception
+    {
+        MockElasticRestClient client = new MockElasticRestClient( ( nAttempt, nActions ) -> ( nAttempt == 1 ) ? HTTP_TOO_MANY_REQUESTS : HTTP_CREATED );
+
+        BulkResult result = BulkSender.send( client, "index", newBody( 3 ) );
+
+        assertEquals( 3, result.getSucceeded( ).size( ) );
+        assertEquals( Arrays.asList( 3, 3 ), client.getRequestsSizes( ) );
+    }
+
+    /**
+     * Test of send method, of class BulkSender : only the actions rejected with a 429 status are sent again, the other rejected actions are failures
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    void testSendItemsTooManyRequests( ) throws Exception
+    {
+        MockElasticRestClient client = new MockElasticRestClient( ( nAttempt, nActions ) -> HTTP_CREATED );
+        client.setItemsStatuses( nAttempt -> ( nAttempt == 1 ) ? new int [ ] {
+                HTTP_CREATED, HTTP_TOO_MANY_REQUESTS, HTTP_BAD_REQUEST
+        } : new int [ ] {
+                HTTP_CREATED
+        } );
+
+        BulkResult result = BulkSender.send( client, "index", newBody( 3 ) );
+
+        assertEquals( 2, result.getSucceeded( ).size( ) );
+        assertEquals( 1, result.getFailures( ).size( ) );
+        assertEquals( HTTP_BAD_REQUEST, result.getFailures( ).get( 0 ).getError( ).getStatus( ) );
+        assertEquals( Arrays.asList( 3, 1 ), client.getRequestsSizes( ) );
+    }
+
+    /**
+     * Test of send method, of class BulkSender : an action still rejected with a 429 status after the max number of attempts is a failure
+     * 
+     * @throws Exception
+     *             if the test fails
+     */
+    @Test
+    void testSendItemsTooManyRequestsMaxAttempts( ) throws Exception
+    {
+        MockElasticRestClient client = new MockElasticRestClient( ( nAttempt, nActions ) -> HTTP_CREATED );
+        client.setItemsStatuses( nAttempt -> new int [ ] {
+                HTTP_TOO_MANY_REQUESTS
+        } );
+
+        BulkResult result = BulkSender.send( client, "index", newBody( 1 ) );
+
+        assertEquals( 0, result.getSucceeded( ).size( ) );
+        assertEquals( 1, result.getFailures( ).size( ) );
+        assertEquals( HTTP_TOO_MANY_REQUESTS, result.getFailures( ).get( 0 ).getError( ).getStatus( ) );
+        assertEquals( RETRY_MAX_ATTEMPTS, client.getRequestsSizes( ).size( ) );
+    }
+
+    /**
+     * Create a body of index actions
+     * 
+     * @param nActions
+     *            the number of actions
+     * @return the body
+     * @throws IOException
+     *             if an action can't be serialized
+     */
+    private static BulkBody newBody( int nActions ) throws IOException
+    {
+        BulkBody body = new BulkBody( );
+        for ( int i = 0; i < nActions; i++ )
+        {
+            body.add( BulkItem.index( String.valueOf( i ), "doc" + i, "source", -1L ) );
+        }
+        return body;
+    }
+
+    /**
+     * Status of a bulk request
+     */
+    @FunctionalInterface
+    private interface RequestStatus
+    {
+        /**
+         * Returns the status of a request
+         * 
+         * @param nAttempt
+         *            the number of the request, starting at 1
+         * @param nActions
+         *            the number of actions of the request
+         * @return the HTTP status
+         */
+        int getStatus( int nAttempt, int nActions );
+    }
+
+    /**
+     * Client answering the bulk requests without server
+     */
+    private static final class MockElasticRestClient extends ElasticRestClient
+    {
+        private final RequestStatus _requestStatus;
+        private final List<Integer> _listRequestsSizes = new ArrayList<>( );
+        private IntFunction<int [ ]> _itemsStatuses;
+
+        /**
+         * Constructor
+         * 
+         * @param requestStatus
+         *            the status of the requests
+         */
+        private MockElasticRestClient( RequestStatus requestStatus )
+        {
+            super( "http://localhost:9200" );
+            _requestStatus = requestStatus;
+        }
+
+        /**
+         * Sets the statuses of the items of the accepted requests, all created by default
+         * 
+         * @param itemsStatuses
+         *            the statuses of the items by number of request
+         */
+        private void setItemsStatuses( IntFunction<int [ ]> itemsStatuses )
+        {
+            _itemsStatuses = itemsStatuses;
+        }
+
+        /**
+         * Returns the number of actions of each request sent
+         * 
+         * @return the sizes of the requests
+         */
+        private List<Integer> getRequestsSizes( )
+        {
+            return _listRequestsSizes;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public <T> T postBulk( String strIndex, String strParameters, RequestWriter writer, ResponseHandler<T> handler ) throws ElasticClientException
+        {
+            try
+            {
+                ByteArrayOutputStream out = new ByteArrayOutputStream( );
+                writer.write( out );
+                // Each index action is serialized as two lines
+                int nActions = (int) out.toString( StandardCharsets.UTF_8.name( ) ).chars( ).filter( c -> c == '\n' ).count( ) / 2;
+                _listRequestsSizes.add( nActions );
+                int nAttempt = _listRequestsSizes.size( );
+                int nStatus = _requestStatus.getStatus( nAttempt, nActions );
+                if ( nStatus != HTTP_CREATED )
+                {
+                    throw new ElasticClientException( "Bulk request rejected", new ElasticHttpException( nStatus, "" ) );
+                }
+                int [ ] itemsStatuses = ( _itemsStatuses != null ) ? _itemsStatuses.apply( nAttempt ) : new int [ 0 ];
+                StringBuilder sbResponse = new StringBuilder( "{\"errors\":" ).append( itemsStatuses.length > 0 ).append( ",\"items\":[" );
+                for ( int i = 0; i < nActions; i++ )
+                {
+                    int nItemStatus = ( i < itemsStatuses.length ) ? itemsStatuses [i] : HTTP_CREATED;
+                    sbResponse.append( ( i > 0 ) ? "," : "" ).append( "{\"index\":{\"status\":" ).append( nItemStatus );
+                    if ( nItemStatus != HTTP_CREATED )
+                    {
+                        sbResponse.append( ",\"error\":{\"type\":\"error\",\"reason\":\"rejected\"}" );
+                    }
+                    sbResponse.append( "}}" );
+                }
+                sbResponse.append( "]}" );
+                return handler.handle( new ByteArrayInputStream( sbResponse.toString( ).getBytes( StandardCharsets.UTF_8 ) ) );
+            }
+            catch( IOException e )
+            {
+                throw new ElasticClientException( "Bulk request error", e );
+            }
+        }
+    }
+}